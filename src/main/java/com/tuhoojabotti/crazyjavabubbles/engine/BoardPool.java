@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Generates random boards on a background thread and keeps a few of them
+ * ready, so that starting a game doesn't have to wait for one.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BoardPool {
+
+    /**
+     * Boards ready to be played.
+     */
+    private final BlockingQueue<Grid> ready;
+    /**
+     * Size and colors of the boards.
+     */
+    private final int width, height, colors;
+    /**
+     * The thread generating the boards.
+     */
+    private final Thread worker;
+
+    /**
+     * Create a pool and start filling it.
+     *
+     * @param width width of the boards
+     * @param height height of the boards
+     * @param colors number of different colors
+     * @param capacity how many boards to keep ready
+     */
+    public BoardPool(int width, int height, int colors, int capacity) {
+        // Fail here, not on the worker thread.
+        new Grid(width, height, colors);
+        this.width = width;
+        this.height = height;
+        this.colors = colors;
+        ready = new ArrayBlockingQueue<>(capacity);
+
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                fill();
+            }
+        }, "BoardPool");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    /**
+     * Keep the queue full until interrupted.
+     */
+    private void fill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                ready.put(generate());
+            }
+        } catch (InterruptedException e) {
+            // Shutting down.
+        }
+    }
+
+    /**
+     * @return a new random board with moves
+     */
+    private Grid generate() {
+        Grid grid = new Grid(width, height, colors);
+        grid.randomize();
+        return grid;
+    }
+
+    /**
+     * Take a ready board. If the pool is empty the board is generated right
+     * away instead of waiting.
+     *
+     * @return a new random board with moves
+     */
+    public Grid take() {
+        Grid grid = ready.poll();
+        return grid != null ? grid : generate();
+    }
+
+    /**
+     * @return number of boards ready
+     */
+    public int size() {
+        return ready.size();
+    }
+
+    /**
+     * Stop generating boards.
+     */
+    public void shutdown() {
+        worker.interrupt();
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.Arrays;
+
+/**
+ * Connected same-colored groups of a board. Every cell knows the label of its
+ * cluster and the cells of a cluster are linked together, so finding a
+ * cluster and walking through it are both cheap.
+ *
+ * After a pop only the columns that changed are labeled again, together with
+ * the clusters that reach into them.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class ClusterLabels {
+
+    /**
+     * Label of an empty cell, also the end of a cluster.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Cluster label of every cell.
+     */
+    private final int[] labels;
+    /**
+     * Next cell of the same cluster.
+     */
+    private final int[] next;
+    /**
+     * First cell of each cluster.
+     */
+    private int[] firsts;
+    /**
+     * Size of each cluster, 0 if the label is free.
+     */
+    private int[] sizes;
+    /**
+     * Labels in use or freed so far.
+     */
+    private int labelCount;
+    /**
+     * Freed labels waiting for reuse.
+     */
+    private int[] free;
+    /**
+     * Number of freed labels.
+     */
+    private int freeCount;
+    /**
+     * Number of clusters.
+     */
+    private int count;
+    /**
+     * Number of clusters with at least two bubbles.
+     */
+    private int poppable;
+    /**
+     * Queue of the BFS.
+     */
+    private int[] queue;
+    /**
+     * Cells outside the changed columns that need a new label.
+     */
+    private int[] seeds;
+    /**
+     * Number of seeds.
+     */
+    private int seedCount;
+
+    /**
+     * Create labels for a board of the given size.
+     *
+     * @param size number of cells on the board
+     */
+    public ClusterLabels(int size) {
+        labels = new int[size];
+        next = new int[size];
+        firsts = new int[16];
+        sizes = new int[16];
+        free = new int[16];
+        queue = new int[16];
+        seeds = new int[16];
+        Arrays.fill(labels, NONE);
+    }
+
+    /**
+     * Label all the clusters of the board in one linear pass.
+     *
+     * @param cells colors of the board row by row, 0 is empty
+     * @param width width of the board
+     */
+    public void update(byte[] cells, int width) {
+        Arrays.fill(labels, NONE);
+        Arrays.fill(sizes, 0, labelCount, 0);
+        labelCount = 0;
+        freeCount = 0;
+        count = 0;
+        poppable = 0;
+
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] != 0 && labels[cell] == NONE) {
+                label(cells, width, cell);
+            }
+        }
+    }
+
+    /**
+     * Label the clusters again after the given columns have changed. The
+     * labels of the cells in the columns must still be the ones from before
+     * the change.
+     *
+     * @param cells colors of the board row by row, 0 is empty
+     * @param width width of the board
+     * @param from first changed column
+     * @param to last changed column
+     */
+    public void update(byte[] cells, int width, int from, int to) {
+        int height = cells.length / width;
+        seedCount = 0;
+
+        // Clusters reaching out of the changed columns go through the
+        // neighbouring columns.
+        forgetClustersIn(width, height, from - 1, from, to);
+        forgetClustersIn(width, height, to + 1, from, to);
+
+        // Forget everything in the changed columns.
+        for (int y = 0; y < height; y++) {
+            for (int cell = y * width + from; cell <= y * width + to; cell++) {
+                int label = labels[cell];
+                if (label != NONE) {
+                    if (sizes[label] != 0) {
+                        freeLabel(label);
+                    }
+                    labels[cell] = NONE;
+                }
+            }
+        }
+
+        for (int i = 0; i < seedCount; i++) {
+            if (labels[seeds[i]] == NONE) {
+                label(cells, width, seeds[i]);
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            for (int cell = y * width + from; cell <= y * width + to; cell++) {
+                if (cells[cell] != 0 && labels[cell] == NONE) {
+                    label(cells, width, cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget the clusters that have cells in a column next to the changed
+     * ones. Their cells outside the changed columns are kept as seeds.
+     *
+     * @param width width of the board
+     * @param height height of the board
+     * @param column the column to check
+     * @param from first changed column
+     * @param to last changed column
+     */
+    private void forgetClustersIn(int width, int height, int column, int from, int to) {
+        if (column < 0 || column >= width) {
+            return;
+        }
+        for (int y = 0; y < height; y++) {
+            int label = labels[y * width + column];
+            if (label == NONE || sizes[label] == 0) {
+                continue;
+            }
+            for (int cell = firsts[label]; cell != NONE; cell = next[cell]) {
+                int x = cell % width;
+                if (x < from || x > to) {
+                    labels[cell] = NONE;
+                    seeds = grow(seeds, seedCount);
+                    seeds[seedCount++] = cell;
+                }
+            }
+            freeLabel(label);
+        }
+    }
+
+    /**
+     * Give a new label to the cluster of a cell with a BFS.
+     *
+     * @param cells colors of the board
+     * @param width width of the board
+     * @param start the first cell of the cluster
+     */
+    private void label(byte[] cells, int width, int start) {
+        int label = newLabel();
+        byte color = cells[start];
+        int tail = 0;
+        labels[start] = label;
+        queue[tail++] = start;
+
+        // Everything in queue between head and tail is waiting.
+        for (int head = 0; head < tail; head++) {
+            int current = queue[head],
+                x = current % width;
+            queue = grow(queue, tail + 4);
+            if (x + 1 < width) {
+                tail = add(cells, color, label, current + 1, tail);
+            }
+            if (x > 0) {
+                tail = add(cells, color, label, current - 1, tail);
+            }
+            if (current + width < cells.length) {
+                tail = add(cells, color, label, current + width, tail);
+            }
+            if (current >= width) {
+                tail = add(cells, color, label, current - width, tail);
+            }
+        }
+
+        // Link the cells in BFS order.
+        for (int i = 0; i < tail - 1; i++) {
+            next[queue[i]] = queue[i + 1];
+        }
+        next[queue[tail - 1]] = NONE;
+        firsts[label] = start;
+        sizes[label] = tail;
+        count++;
+        if (tail >= 2) {
+            poppable++;
+        }
+    }
+
+    /**
+     * Add a cell to the cluster if it has the same color.
+     *
+     * @param cells colors of the board
+     * @param color color of the cluster
+     * @param label label of the cluster
+     * @param cell the cell to check
+     * @param tail end of the BFS queue
+     * @return the new end of the queue
+     */
+    private int add(byte[] cells, byte color, int label, int cell, int tail) {
+        if (cells[cell] == color && labels[cell] == NONE) {
+            labels[cell] = label;
+            queue[tail++] = cell;
+        }
+        return tail;
+    }
+
+    /**
+     * @return an unused label
+     */
+    private int newLabel() {
+        if (freeCount > 0) {
+            return free[--freeCount];
+        }
+        firsts = grow(firsts, labelCount);
+        sizes = grow(sizes, labelCount);
+        return labelCount++;
+    }
+
+    /**
+     * Release a label for reuse.
+     *
+     * @param label the label
+     */
+    private void freeLabel(int label) {
+        if (sizes[label] >= 2) {
+            poppable--;
+        }
+        sizes[label] = 0;
+        count--;
+        free = grow(free, freeCount);
+        free[freeCount++] = label;
+    }
+
+    /**
+     * Make sure an array has room for the given index.
+     *
+     * @param array the array
+     * @param index index that must fit
+     * @return the array or a bigger copy of it
+     */
+    private static int[] grow(int[] array, int index) {
+        if (index < array.length) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
+    }
+
+    /**
+     * @param cell index of the cell
+     * @return label of the cell's cluster or {@link #NONE} if empty
+     */
+    public int getLabel(int cell) {
+        return labels[cell];
+    }
+
+    /**
+     * @param label label of a cluster
+     * @return number of bubbles in the cluster, 0 if the label is not in use
+     */
+    public int getSize(int label) {
+        return sizes[label];
+    }
+
+    /**
+     * @param label label of a cluster
+     * @return index of the cluster's first cell
+     */
+    public int getFirst(int label) {
+        return firsts[label];
+    }
+
+    /**
+     * @param cell index of a cell
+     * @return the next cell of the same cluster or {@link #NONE}
+     */
+    public int getNext(int cell) {
+        return next[cell];
+    }
+
+    /**
+     * @return the number of labels, some of them may not be in use
+     */
+    public int getLabelCount() {
+        return labelCount;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return number of clusters with at least two bubbles
+     */
+    public int getPoppableCount() {
+        return poppable;
+    }
+
+    /**
+     * Count the clusters of each size.
+     *
+     * @return number of clusters indexed by size, the last index being the
+     * size of the biggest cluster
+     */
+    public int[] getSizeHistogram() {
+        int biggest = 0;
+        for (int label = 0; label < labelCount; label++) {
+            biggest = Math.max(biggest, sizes[label]);
+        }
+        int[] histogram = new int[biggest + 1];
+        for (int label = 0; label < labelCount; label++) {
+            if (sizes[label] > 0) {
+                histogram[sizes[label]]++;
+            }
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.List;
+
+/**
+ * The rules and the scoring of the game on board coordinates. Doesn't need
+ * Slick or a display, so it can be used for simulations.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class GameEngine {
+
+    /**
+     * Score of the game.
+     */
+    private int score;
+    /**
+     * Total Bubbles popped.
+     */
+    private int poppedTotal;
+    /**
+     * Biggest cluster popped.
+     */
+    private int biggestCluster;
+    /**
+     * Start time of the game.
+     */
+    private long startTime;
+    /**
+     * End time of the game.
+     */
+    private long endTime;
+
+    /**
+     * Game board.
+     */
+    private Grid grid;
+    /**
+     * Pops that can be undone and redone.
+     */
+    private final UndoLog history;
+    /**
+     * Recording of the game.
+     */
+    private final Replay replay;
+    /**
+     * Source of time for the time bonus.
+     */
+    private final Clock clock;
+    /**
+     * Are the pops recorded for undo and the replay.
+     */
+    private boolean recording = true;
+
+    /**
+     * Create a new game.
+     *
+     * @param width width of the board
+     * @param height height of the board
+     * @param colors number of different colors
+     */
+    public GameEngine(int width, int height, int colors) {
+        this(width, height, colors, new MonotonicClock());
+    }
+
+    /**
+     * Create a new game with its own time, for simulations.
+     *
+     * @param width width of the board
+     * @param height height of the board
+     * @param colors number of different colors
+     * @param clock source of time
+     */
+    public GameEngine(int width, int height, int colors, Clock clock) {
+        this.clock = clock;
+        grid = new Grid(width, height, colors);
+        history = new UndoLog();
+        replay = new Replay();
+    }
+
+    /**
+     * Start a new game on a random board.
+     */
+    public void init() {
+        grid.randomize();
+        start();
+    }
+
+    /**
+     * Start a new game on the board of a seed, for replays and challenges.
+     *
+     * @param seed the seed of the board
+     */
+    public void init(long seed) {
+        grid.randomize(seed);
+        start();
+    }
+
+    /**
+     * Start a new game on a ready board, for example from a
+     * {@link BoardPool}.
+     *
+     * @param board the board to play on
+     */
+    public void init(Grid board) {
+        grid = board;
+        start();
+    }
+
+    /**
+     * Start a new game on the current board.
+     */
+    public void start() {
+        startTime = clock.millis();
+        endTime = startTime;
+        score = 0;
+        poppedTotal = 0;
+        biggestCluster = 0;
+        history.clear();
+        if (recording) {
+            replay.start(grid);
+        }
+    }
+
+    /**
+     * Continue from the position of another game of the same size, for
+     * simulations. The selection and the undo history are not copied, the
+     * replay starts from the copied position.
+     *
+     * @param other the game to copy
+     */
+    public void copyFrom(GameEngine other) {
+        grid.copyFrom(other.grid);
+        score = other.score;
+        poppedTotal = other.poppedTotal;
+        biggestCluster = other.biggestCluster;
+        startTime = other.startTime;
+        endTime = other.endTime;
+        history.clear();
+        if (recording) {
+            replay.start(grid);
+        }
+    }
+
+    /**
+     * Select the cluster at a point.
+     *
+     * @param x
+     * @param y
+     * @return true if the selection changed
+     */
+    public boolean select(int x, int y) {
+        return grid.select(x, y);
+    }
+
+    /**
+     * Pop the selected cluster.
+     *
+     * @return number of bubbles popped, 0 if nothing was selected
+     */
+    public int pop() {
+        int popped = grid.pop();
+        if (popped > 0) {
+            if (recording) {
+                history.record(grid, score, poppedTotal, biggestCluster);
+                recordPop();
+            }
+            updateScore(popped);
+        }
+        return popped;
+    }
+
+    /**
+     * Take back the last pop, score included.
+     *
+     * @return false if there was nothing to undo
+     */
+    public boolean undo() {
+        if (!history.canUndo()) {
+            return false;
+        }
+        int entry = history.undo();
+        grid.unpop(history, entry);
+        replay.removeLast();
+        score = history.getScore(entry);
+        poppedTotal = history.getPoppedTotal(entry);
+        biggestCluster = history.getBiggestCluster(entry);
+        return true;
+    }
+
+    /**
+     * Pop again the last pop that was undone.
+     *
+     * @return number of bubbles popped, 0 if there was nothing to redo
+     */
+    public int redo() {
+        if (!history.canRedo()) {
+            return 0;
+        }
+        int cell = history.getPopped(history.redo(), 0);
+        grid.select(cell % grid.getWidth(), cell / grid.getWidth());
+        int popped = grid.pop();
+        recordPop();
+        updateScore(popped);
+        return popped;
+    }
+
+    /**
+     * Stop or start recording the pops for undo and the replay. Games that
+     * only check replays don't need either.
+     *
+     * @param recording are the pops recorded
+     */
+    void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Set the length of the game, when it's played from a replay.
+     *
+     * @param millis milliseconds from the start to the end
+     */
+    void setTime(long millis) {
+        endTime = startTime + millis;
+    }
+
+    /**
+     * Add the last pop to the replay. The game lasts at least until the pop,
+     * so that the last pop of the replay is the end of the game.
+     */
+    private void recordPop() {
+        int cell = grid.getPopped(0);
+        endTime = clock.millis();
+        replay.add(cell % grid.getWidth(), cell / grid.getWidth(), endTime - startTime);
+    }
+
+    /**
+     * List all the legal moves, one for each cluster of two or more bubbles.
+     *
+     * @return the moves
+     */
+    public List<Move> listMoves() {
+        return grid.listMoves();
+    }
+
+    public boolean isGameOver() {
+        if (grid.hasMoreMoves()) {
+            endTime = clock.millis();
+            return false;
+        }
+        return true;
+    }
+
+    public int getTotalScore() {
+        return (int) Math.round(score
+            + getBiggestClusterBonus()
+            - getTimeBonus());
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getBiggestClusterBonus() {
+        return (int) Math.pow(biggestCluster, 3);
+    }
+
+    public int getBiggestCluster() {
+        return biggestCluster;
+    }
+
+    public int getTimeBonus() {
+        return (int) Math.pow(getTime(), 3);
+    }
+
+    public int getBubblesPopped() {
+        return poppedTotal;
+    }
+
+    public int getTime() {
+        return (int) Math.round((endTime - startTime) / 1000);
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public UndoLog getHistory() {
+        return history;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Update the score of the game.
+     *
+     * @param popped amount of bubbles popped
+     */
+    private void updateScore(int popped) {
+        poppedTotal += popped;
+        biggestCluster = Math.max(biggestCluster, popped);
+        score += calculateScore(popped);
+    }
+
+    /**
+     * Calculate score for a move.
+     *
+     * @param popped amount of bubbles popped
+     * @return the score
+     */
+    public int calculateScore(int popped) {
+        return (int) Math.round(Math.pow(popped, 2)) * 100;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.Arrays;
+
+/**
+ * Drops the bubbles down and packs the columns to the left. Every column is
+ * compacted straight into its final place, so the whole board is handled in
+ * one pass. The moves are recorded so that the views can follow.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class Gravity {
+
+    /**
+     * Old cell index of each moved bubble.
+     */
+    private int[] from;
+    /**
+     * New cell index of each moved bubble.
+     */
+    private int[] to;
+    /**
+     * Number of moves of the last update.
+     */
+    private int count;
+    /**
+     * The last column that could have changed in the last update.
+     */
+    private int lastColumn;
+
+    /**
+     * Create gravity. The move list grows when needed.
+     *
+     * @param capacity how many moves to make room for at first
+     */
+    public Gravity(int capacity) {
+        from = new int[Math.max(1, capacity)];
+        to = new int[from.length];
+    }
+
+    /**
+     * Apply gravity to the board. The moves are in an order where every
+     * bubble moves to an already empty cell.
+     *
+     * @param cells colors of the board row by row, 0 is empty
+     * @param width width of the board
+     * @param height height of the board
+     * @return number of bubbles moved
+     */
+    public int apply(byte[] cells, int width, int height) {
+        return apply(cells, width, height, 0, width - 1);
+    }
+
+    /**
+     * Apply gravity to a board where bubbles were removed only from the given
+     * columns. Columns on the right are touched only if they have to move
+     * left.
+     *
+     * @param cells colors of the board row by row, 0 is empty
+     * @param width width of the board
+     * @param height height of the board
+     * @param first first column that has changed
+     * @param last last column that has changed
+     * @return number of bubbles moved
+     */
+    public int apply(byte[] cells, int width, int height, int first, int last) {
+        count = 0;
+        int column = first, // Where the next non-empty column goes.
+            bottom = (height - 1) * width,
+            x;
+
+        for (x = first; x < width; x++) {
+            // Nothing to move, or only empty columns left.
+            if (x > last && (column == x || cells[bottom + x] == 0)) {
+                break;
+            }
+            int row = height - 1; // Where the next bubble goes.
+            for (int y = height - 1; y >= 0; y--) {
+                int cell = y * width + x;
+                if (cells[cell] == 0) {
+                    continue;
+                }
+                int target = row * width + column;
+                if (target != cell) {
+                    cells[target] = cells[cell];
+                    cells[cell] = 0;
+                    addMove(cell, target);
+                }
+                row--;
+            }
+            if (row < height - 1) {
+                column++;
+            }
+        }
+        lastColumn = x - 1;
+        return count;
+    }
+
+    /**
+     * Record a move, grow the list if it's full.
+     *
+     * @param cell where the bubble was
+     * @param target where the bubble is now
+     */
+    private void addMove(int cell, int target) {
+        if (count == from.length) {
+            from = Arrays.copyOf(from, count * 2);
+            to = Arrays.copyOf(to, count * 2);
+        }
+        from[count] = cell;
+        to[count] = target;
+        count++;
+    }
+
+    public int getLastColumn() {
+        return lastColumn;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @param i index of the move
+     * @return where the bubble was
+     */
+    public int getFrom(int i) {
+        return from[i];
+    }
+
+    /**
+     * @param i index of the move
+     * @return where the bubble is now
+     */
+    public int getTo(int i) {
+        return to[i];
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rules of the board on plain arrays. One byte per cell, no objects per
+ * bubble, so it works the same for the 24x17 game board and for boards of
+ * {@link #MAX_SIZE} x {@link #MAX_SIZE} cells.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class Grid {
+
+    /**
+     * Marks an empty cell.
+     */
+    public static final byte EMPTY = 0;
+    /**
+     * Biggest supported width and height.
+     */
+    public static final int MAX_SIZE = 4096;
+
+    /**
+     * Colors of the whole board row by row, {@link #EMPTY} if there's no
+     * bubble. Colors are numbered from 1 to colors.
+     */
+    private final byte[] cells;
+    /**
+     * Width of the board
+     */
+    private final int width;
+    /**
+     * Height of the board
+     */
+    private final int height;
+    /**
+     * Number of different colors.
+     */
+    private final int colors;
+    /**
+     * Clusters of the board, updated after every change.
+     */
+    private final ClusterLabels clusters;
+    /**
+     * Moves the bubbles after a pop.
+     */
+    private final Gravity gravity;
+    /**
+     * Label of the selected cluster or {@link ClusterLabels#NONE}.
+     */
+    private int selected;
+    /**
+     * Cells removed by the last pop.
+     */
+    private int[] popped;
+    /**
+     * Number of cells removed by the last pop.
+     */
+    private int poppedCount;
+    /**
+     * Color of the cells removed by the last pop.
+     */
+    private byte poppedColor;
+    /**
+     * Seed of the last random board.
+     */
+    private long seed;
+    /**
+     * Is the board still the random board of the seed?
+     */
+    private boolean seeded;
+
+    /**
+     * Create a new empty grid.
+     *
+     * @param width width of the board
+     * @param height height of the board
+     * @param colors number of different colors
+     */
+    public Grid(int width, int height, int colors) {
+        if (width < 1 || width > MAX_SIZE || height < 1 || height > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between 1x1 and "
+                + MAX_SIZE + "x" + MAX_SIZE + ", not " + width + "x" + height + ".");
+        }
+        if (colors < 1 || colors > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid number of colors: " + colors);
+        }
+        this.width = width;
+        this.height = height;
+        this.colors = colors;
+        cells = new byte[width * height];
+        clusters = new ClusterLabels(cells.length);
+        gravity = new Gravity(Math.min(cells.length, 1024));
+        popped = new int[16];
+        selected = ClusterLabels.NONE;
+    }
+
+    /**
+     * Fill the board with random colors.
+     */
+    public void randomize() {
+        randomize(SplitMix64.randomSeed());
+    }
+
+    /**
+     * Fill the board with random colors until there are moves left. (Should
+     * just take one loop.) A board of one cell can never have moves. The same
+     * seed always gives the same board.
+     *
+     * @param seed the seed
+     */
+    public void randomize(long seed) {
+        this.seed = seed;
+        seeded = true;
+        SplitMix64 random = new SplitMix64(seed);
+        do {
+            // Two cells from every 64 random bits.
+            for (int i = 0; i < cells.length; i += 2) {
+                long bits = random.nextLong();
+                cells[i] = (byte) (1 + SplitMix64.scale((int) bits, colors));
+                if (i + 1 < cells.length) {
+                    cells[i + 1] = (byte) (1 + SplitMix64.scale((int) (bits >>> 32), colors));
+                }
+            }
+            update();
+        } while (!hasMoreMoves() && cells.length > 1);
+    }
+
+    /**
+     * Set the content of the board manually.
+     *
+     * @param newCells colors row by row, 0 for empty
+     */
+    public void setCells(byte[] newCells) {
+        System.arraycopy(newCells, 0, cells, 0, cells.length);
+        seeded = false;
+        update();
+    }
+
+    /**
+     * Copy the content of another board of the same size, for simulations.
+     *
+     * @param other the board to copy
+     */
+    public void copyFrom(Grid other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Can't copy a " + other.width + "x"
+                + other.height + " board to a " + width + "x" + height + " board.");
+        }
+        seed = other.seed;
+        setCells(other.cells);
+    }
+
+    /**
+     * Select the cluster at a point. Single bubbles and empty cells can't be
+     * selected.
+     *
+     * @param x
+     * @param y
+     * @return true if the selection changed
+     */
+    public boolean select(int x, int y) {
+        int label = ClusterLabels.NONE;
+        if (isOnBoard(x, y)) {
+            label = clusters.getLabel(y * width + x);
+        }
+        // Can't select just one bubble.
+        if (label != ClusterLabels.NONE && clusters.getSize(label) < 2) {
+            label = ClusterLabels.NONE;
+        }
+
+        if (label == selected) {
+            return false;
+        }
+        selected = label;
+        return true;
+    }
+
+    /**
+     * Pop (remove) the selected cluster and let the rest fall. Only the
+     * columns that changed are labeled again.
+     *
+     * @return number of bubbles removed, 0 if nothing was selected
+     */
+    public int pop() {
+        if (selected == ClusterLabels.NONE) {
+            return 0;
+        }
+
+        poppedCount = clusters.getSize(selected);
+        poppedColor = cells[clusters.getFirst(selected)];
+        if (popped.length < poppedCount) {
+            popped = new int[Math.max(poppedCount, popped.length * 2)];
+        }
+        int first = width, last = 0, i = 0;
+        for (int cell = clusters.getFirst(selected); cell != ClusterLabels.NONE;
+            cell = clusters.getNext(cell)) {
+            popped[i++] = cell;
+            cells[cell] = EMPTY;
+            first = Math.min(first, cell % width);
+            last = Math.max(last, cell % width);
+        }
+        selected = ClusterLabels.NONE;
+        seeded = false;
+
+        gravity.apply(cells, width, height, first, last);
+        clusters.update(cells, width, first, gravity.getLastColumn());
+        return poppedCount;
+    }
+
+    /**
+     * Put back the bubbles of a pop: move the fallen bubbles back up in
+     * reverse order and fill the popped cells. Only the columns that changed
+     * are labeled again.
+     *
+     * @param log the history
+     * @param entry the pop to revert, must be the last one done
+     */
+    void unpop(UndoLog log, int entry) {
+        int first = width, last = 0;
+        for (int i = log.getMoveCount(entry) - 1; i >= 0; i--) {
+            int from = log.getFrom(entry, i), to = log.getTo(entry, i);
+            cells[from] = cells[to];
+            cells[to] = EMPTY;
+            first = Math.min(first, Math.min(from % width, to % width));
+            last = Math.max(last, Math.max(from % width, to % width));
+        }
+        byte color = log.getColor(entry);
+        for (int i = 0; i < log.getPoppedCount(entry); i++) {
+            int cell = log.getPopped(entry, i);
+            cells[cell] = color;
+            first = Math.min(first, cell % width);
+            last = Math.max(last, cell % width);
+        }
+        selected = ClusterLabels.NONE;
+        seeded = false;
+        clusters.update(cells, width, first, last);
+    }
+
+    /**
+     * Let the bubbles fall to their places and label the clusters again.
+     *
+     * @return number of bubbles moved
+     */
+    public int drop() {
+        int moves = gravity.apply(cells, width, height);
+        seeded = false;
+        update();
+        return moves;
+    }
+
+    /**
+     * Label the clusters and forget the selection.
+     */
+    private void update() {
+        selected = ClusterLabels.NONE;
+        clusters.update(cells, width);
+    }
+
+    /**
+     * Check if the game is over. There are moves if some cluster has at least
+     * two bubbles.
+     *
+     * @return whether groups exist on the board or not.
+     */
+    public boolean hasMoreMoves() {
+        return clusters.getPoppableCount() > 0;
+    }
+
+    /**
+     * List all the legal moves, one for each cluster of two or more bubbles.
+     * The clusters are already labeled, so this is a single pass over them.
+     *
+     * @return the moves
+     */
+    public List<Move> listMoves() {
+        List<Move> moves = new ArrayList<>(clusters.getPoppableCount());
+        for (int label = 0; label < clusters.getLabelCount(); label++) {
+            if (clusters.getSize(label) >= 2) {
+                int cell = clusters.getFirst(label),
+                    x = cell % width,
+                    y = cell / width;
+                moves.add(new Move(x, y, get(x, y), clusters.getSize(label)));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * @return number of clusters indexed by size
+     * @see ClusterLabels#getSizeHistogram()
+     */
+    public int[] getSizeHistogram() {
+        return clusters.getSizeHistogram();
+    }
+
+    /**
+     * Is the point on the board and not empty?
+     *
+     * @param x
+     * @param y
+     * @return true or false
+     */
+    public boolean isOnBoard(int x, int y) {
+        return x >= 0 && x < width
+            && y >= 0 && y < height && cells[y * width + x] != EMPTY;
+    }
+
+    /**
+     * Get the color of a cell.
+     *
+     * @param x
+     * @param y
+     * @return the color or {@link #EMPTY}
+     */
+    public byte get(int x, int y) {
+        return cells[y * width + x];
+    }
+
+    /**
+     * @param i index between 0 and the count of the last pop
+     * @return index of a cell removed by the last pop
+     */
+    public int getPopped(int i) {
+        return popped[i];
+    }
+
+    public int getPoppedCount() {
+        return poppedCount;
+    }
+
+    public byte getPoppedColor() {
+        return poppedColor;
+    }
+
+    /**
+     * @return the moves of the last drop
+     */
+    public Gravity getGravity() {
+        return gravity;
+    }
+
+    public ClusterLabels getClusters() {
+        return clusters;
+    }
+
+    /**
+     * @return label of the selected cluster or {@link ClusterLabels#NONE}
+     */
+    public int getSelected() {
+        return selected;
+    }
+
+    public int getSelectionSize() {
+        return selected == ClusterLabels.NONE ? 0 : clusters.getSize(selected);
+    }
+
+    /**
+     * @return the seed of the last random board
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return true if the board hasn't changed since it was generated from
+     * {@link #getSeed()}
+     */
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getColors() {
+        return colors;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Finds good moves with random playouts run on a fork-join pool.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class HintEngine {
+
+    /**
+     * Threads running the playouts.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a hint engine using all the processors.
+     */
+    public HintEngine() {
+        this(new ForkJoinPool());
+    }
+
+    /**
+     * Create a hint engine.
+     *
+     * @param pool threads running the playouts
+     */
+    public HintEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Start searching for the best move in the background. The game is copied,
+     * so it can be played on while the search is running.
+     *
+     * @param game the position to search
+     * @param budget time limit in milliseconds
+     * @return the running search
+     */
+    public HintSearch search(GameEngine game, long budget) {
+        HintSearch search = new HintSearch(game, pool.getParallelism(),
+            budget, SplitMix64.randomSeed());
+        pool.execute(search);
+        return search;
+    }
+
+    /**
+     * Search for the best move and wait for the answer.
+     *
+     * @param game the position to search
+     * @param budget time limit in milliseconds
+     * @return the best move or null if there are no moves
+     */
+    public Move hint(GameEngine game, long budget) {
+        HintSearch search = search(game, budget);
+        search.join();
+        return search.getBest();
+    }
+
+    /**
+     * Stop the threads.
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A search for the best move. Every legal move is tried first and the game is
+ * then played to the end with random moves. The move with the best average
+ * score wins. The answer so far can be read at any time.
+ *
+ * Playouts are scored with {@link GameEngine#getScore()} and
+ * {@link GameEngine#getBiggestClusterBonus()}, which is the total score
+ * without the time bonus; the time bonus is the same whatever is played.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class HintSearch extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The position searched.
+     */
+    private final GameEngine root;
+    /**
+     * The legal moves of the position.
+     */
+    private final List<Move> moves;
+    /**
+     * Total score of the playouts of each move.
+     */
+    private final AtomicLongArray totals;
+    /**
+     * Number of playouts of each move.
+     */
+    private final AtomicIntegerArray counts;
+    /**
+     * Number of playouts running at the same time.
+     */
+    private final int workers;
+    /**
+     * When to stop, in {@link System#nanoTime()}.
+     */
+    private final long deadline;
+    /**
+     * Seed of the random moves.
+     */
+    private final long seed;
+    /**
+     * Set when the search is no longer needed.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Create a search.
+     *
+     * @param game the position to search, copied
+     * @param workers number of playouts running at the same time
+     * @param budget time limit in milliseconds
+     * @param seed seed of the random moves
+     */
+    public HintSearch(GameEngine game, int workers, long budget, long seed) {
+        root = createScratch(game.getGrid());
+        root.copyFrom(game);
+        moves = root.listMoves();
+        totals = new AtomicLongArray(moves.size());
+        counts = new AtomicIntegerArray(moves.size());
+        this.workers = Math.max(1, workers);
+        this.deadline = System.nanoTime() + budget * 1000000;
+        this.seed = seed;
+    }
+
+    @Override
+    protected void compute() {
+        if (moves.isEmpty()) {
+            return;
+        }
+        Playouts[] tasks = new Playouts[workers];
+        for (int i = 0; i < workers; i++) {
+            tasks[i] = new Playouts(i);
+        }
+        invokeAll(tasks);
+    }
+
+    /**
+     * Stop the search. The best move so far stays available.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if the search was cancelled or ran out of time
+     */
+    public boolean isStopped() {
+        return cancelled || System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * @return the move with the best average score so far, the biggest
+     * cluster if nothing has been played yet, or null if there are no moves
+     */
+    public Move getBest() {
+        Move best = null;
+        double bestScore = -1;
+        for (int i = 0; i < moves.size(); i++) {
+            int count = counts.get(i);
+            double average = count == 0 ? 0 : totals.get(i) / (double) count;
+            if (best == null || average > bestScore
+                || (average == bestScore && moves.get(i).getSize() > best.getSize())) {
+                best = moves.get(i);
+                bestScore = average;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param move index of a move in {@link #getMoves()}
+     * @return average score of the move's playouts, 0 if none
+     */
+    public double getAverage(int move) {
+        int count = counts.get(move);
+        return count == 0 ? 0 : totals.get(move) / (double) count;
+    }
+
+    /**
+     * @return the legal moves of the position
+     */
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return number of playouts finished so far
+     */
+    public int getPlayouts() {
+        int sum = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            sum += counts.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Play one game to the end from a move.
+     *
+     * @param game scratch game
+     * @param move index of the first move
+     * @param random random moves
+     * @return the score reached or -1 if the search stopped first
+     */
+    long playout(GameEngine game, int move, SplitMix64 random) {
+        game.copyFrom(root);
+        Move first = moves.get(move);
+        game.select(first.getX(), first.getY());
+        game.pop();
+
+        Grid grid = game.getGrid();
+        ClusterLabels clusters = grid.getClusters();
+        while (clusters.getPoppableCount() > 0) {
+            if (isStopped()) {
+                return -1;
+            }
+            // Pick the n:th cluster of two or more bubbles.
+            int n = random.nextInt(clusters.getPoppableCount()), label = 0;
+            for (;; label++) {
+                if (clusters.getSize(label) >= 2 && n-- == 0) {
+                    break;
+                }
+            }
+            int cell = clusters.getFirst(label);
+            game.select(cell % grid.getWidth(), cell / grid.getWidth());
+            game.pop();
+        }
+        return game.getScore() + game.getBiggestClusterBonus();
+    }
+
+    /**
+     * Create a game for playouts. Playouts don't take time and are never
+     * undone or replayed, so nothing is recorded.
+     *
+     * @param grid a board of the size of the game
+     * @return the game
+     */
+    static GameEngine createScratch(Grid grid) {
+        GameEngine game = new GameEngine(grid.getWidth(), grid.getHeight(),
+            grid.getColors(), new VirtualClock());
+        game.setRecording(false);
+        return game;
+    }
+
+    /**
+     * Plays games until the search stops, going through the moves in turn.
+     */
+    private class Playouts extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Number of the worker.
+         */
+        private final int worker;
+
+        Playouts(int worker) {
+            this.worker = worker;
+        }
+
+        @Override
+        protected void compute() {
+            GameEngine game = createScratch(root.getGrid());
+            SplitMix64 random = new SplitMix64(seed + worker);
+            int move = worker % moves.size();
+            while (!isStopped()) {
+                long score = playout(game, move, random);
+                if (score >= 0) {
+                    totals.addAndGet(move, score);
+                    counts.incrementAndGet(move);
+                }
+                move = (move + 1) % moves.size();
+            }
+        }
+    }
+}
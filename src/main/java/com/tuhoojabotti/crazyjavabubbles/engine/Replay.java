@@ -0,0 +1,333 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A recording of a game: the starting board and every pop with its time.
+ * The binary form starts with "CJBR", a version byte and the size of the
+ * board as varints. Then comes either the seed of the board (8 bytes) or
+ * the colors of its cells, the number of pops and for every pop the x and
+ * y of a popped cell and the milliseconds since the previous pop, all as
+ * varints. A pop usually takes 3-4 bytes.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class Replay {
+
+    /**
+     * First bytes of a replay.
+     */
+    private static final byte[] MAGIC = {'C', 'J', 'B', 'R'};
+    /**
+     * Version of the format.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Kinds of starting boards.
+     */
+    private static final int SEED = 0, CELLS = 1;
+
+    /**
+     * Size of the board.
+     */
+    private int width, height, colors;
+    /**
+     * Seed of the starting board.
+     */
+    private long seed;
+    /**
+     * Colors of the starting board or null if it came from the seed.
+     */
+    private byte[] cells;
+    /**
+     * Popped points, x and y one after another.
+     */
+    private int[] points;
+    /**
+     * Time of each pop in milliseconds since the start.
+     */
+    private long[] times;
+    /**
+     * Number of pops.
+     */
+    private int count;
+
+    /**
+     * Create an empty replay.
+     */
+    public Replay() {
+        points = new int[64];
+        times = new long[32];
+    }
+
+    /**
+     * Start recording a new game.
+     *
+     * @param grid the starting board
+     */
+    public void start(Grid grid) {
+        width = grid.getWidth();
+        height = grid.getHeight();
+        colors = grid.getColors();
+        seed = grid.getSeed();
+        cells = null;
+        if (!grid.isSeeded()) {
+            cells = new byte[width * height];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = grid.get(i % width, i / width);
+            }
+        }
+        count = 0;
+    }
+
+    /**
+     * Record a pop.
+     *
+     * @param x x of a popped cell
+     * @param y y of a popped cell
+     * @param time milliseconds since the start of the game
+     */
+    public void add(int x, int y, long time) {
+        if (times.length == count) {
+            points = Arrays.copyOf(points, count * 4);
+            times = Arrays.copyOf(times, count * 2);
+        }
+        points[count * 2] = x;
+        points[count * 2 + 1] = y;
+        times[count++] = time;
+    }
+
+    /**
+     * Forget the last pop, when it's undone.
+     */
+    public void removeLast() {
+        if (count > 0) {
+            count--;
+        }
+    }
+
+    /**
+     * Play the replay on a game. The game must have the size of the board.
+     * Every pop is checked to pop something. The game ends at the time of
+     * the last pop.
+     *
+     * @param game the game, started from the beginning
+     * @throws IllegalArgumentException if a pop pops nothing
+     */
+    public void play(GameEngine game) {
+        Grid grid = game.getGrid();
+        if (grid.getWidth() != width || grid.getHeight() != height || grid.getColors() != colors) {
+            throw new IllegalArgumentException("Replay of a " + width + "x" + height
+                + " board with " + colors + " colors can't be played on this game.");
+        }
+        if (cells == null) {
+            game.init(seed);
+        } else {
+            grid.setCells(cells);
+            game.start();
+        }
+        for (int i = 0; i < count; i++) {
+            game.select(getX(i), getY(i));
+            if (game.pop() == 0) {
+                throw new IllegalArgumentException("Pop " + (i + 1) + " at ("
+                    + getX(i) + ", " + getY(i) + ") doesn't pop anything.");
+            }
+        }
+        game.setTime(count == 0 ? 0 : times[count - 1]);
+    }
+
+    /**
+     * Write the replay in the binary form.
+     *
+     * @param out the stream
+     * @throws IOException if writing fails
+     */
+    public void write(OutputStream out) throws IOException {
+        out.write(toBytes());
+    }
+
+    /**
+     * @return the replay in the binary form
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[32 + (cells == null ? 0 : cells.length) + count * 15];
+        int i = 0;
+        for (byte b : MAGIC) {
+            bytes[i++] = b;
+        }
+        bytes[i++] = VERSION;
+        i = Varint.write(bytes, i, width);
+        i = Varint.write(bytes, i, height);
+        i = Varint.write(bytes, i, colors);
+        if (cells == null) {
+            bytes[i++] = SEED;
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[i++] = (byte) (seed >>> shift);
+            }
+        } else {
+            bytes[i++] = CELLS;
+            System.arraycopy(cells, 0, bytes, i, cells.length);
+            i += cells.length;
+        }
+        i = Varint.write(bytes, i, count);
+        long last = 0;
+        for (int j = 0; j < count; j++) {
+            i = Varint.write(bytes, i, points[j * 2]);
+            i = Varint.write(bytes, i, points[j * 2 + 1]);
+            i = Varint.write(bytes, i, Math.max(0, times[j] - last));
+            last = Math.max(last, times[j]);
+        }
+        return Arrays.copyOf(bytes, i);
+    }
+
+    /**
+     * Read a replay in the binary form.
+     *
+     * @param in the stream
+     * @return the replay
+     * @throws IOException if reading fails or the data is not a replay
+     */
+    public static Replay read(InputStream in) throws IOException {
+        return read(in, Grid.MAX_SIZE * Grid.MAX_SIZE);
+    }
+
+    /**
+     * Read a replay in the binary form, refusing boards bigger than a limit
+     * before anything is allocated for them.
+     *
+     * @param in the stream
+     * @param maxCells largest number of cells allowed on the board
+     * @return the replay
+     * @throws IOException if reading fails, the data is not a replay or the
+     * board is too big
+     */
+    public static Replay read(InputStream in, int maxCells) throws IOException {
+        Replay replay = new Replay();
+        for (byte b : MAGIC) {
+            if (in.read() != b) {
+                throw new IOException("Not a replay.");
+            }
+        }
+        int version = in.read();
+        if (version != VERSION) {
+            throw new IOException("Unknown replay version: " + version);
+        }
+        replay.width = (int) Varint.read(in);
+        replay.height = (int) Varint.read(in);
+        replay.colors = (int) Varint.read(in);
+        if (replay.width < 1 || replay.width > Grid.MAX_SIZE
+            || replay.height < 1 || replay.height > Grid.MAX_SIZE) {
+            throw new IOException("Invalid board size in replay.");
+        }
+        if ((long) replay.width * replay.height > maxCells) {
+            throw new IOException("Board of " + replay.width + "x" + replay.height
+                + " in replay is bigger than " + maxCells + " cells.");
+        }
+        int kind = in.read();
+        if (kind == SEED) {
+            for (int i = 0; i < 8; i++) {
+                replay.seed = replay.seed << 8 | Varint.readByte(in);
+            }
+        } else if (kind == CELLS) {
+            replay.cells = new byte[replay.width * replay.height];
+            for (int i = 0; i < replay.cells.length; i++) {
+                replay.cells[i] = (byte) Varint.readByte(in);
+            }
+        } else {
+            throw new IOException("Unknown board in replay: " + kind);
+        }
+        long pops = Varint.read(in), time = 0;
+        if (pops > replay.width * replay.height / 2) {
+            throw new IOException("Too many pops in replay: " + pops);
+        }
+        for (int i = 0; i < pops; i++) {
+            int x = (int) Varint.read(in), y = (int) Varint.read(in);
+            time += Varint.read(in);
+            replay.add(x, y, time);
+        }
+        return replay;
+    }
+
+    /**
+     * @param i index of a pop
+     * @return x of the popped cell
+     */
+    public int getX(int i) {
+        return points[i * 2];
+    }
+
+    /**
+     * @param i index of a pop
+     * @return y of the popped cell
+     */
+    public int getY(int i) {
+        return points[i * 2 + 1];
+    }
+
+    /**
+     * @param i index of a pop
+     * @return milliseconds from the start to the pop
+     */
+    public long getTime(int i) {
+        return times[i];
+    }
+
+    /**
+     * @return number of pops
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return seed of the starting board
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return true if the starting board is the board of the seed
+     */
+    public boolean isSeeded() {
+        return cells == null;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getColors() {
+        return colors;
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays submitted games again on all cores and checks the claimed results.
+ * The submissions are read one at a time, the work queue is bounded and
+ * boards over a size limit are refused before they are allocated, so
+ * memory use stays the same however many games there are.
+ *
+ * Used from the command line with files or directories of submissions, or
+ * "-" for the standard input.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class ReplayVerifier {
+
+    /**
+     * Default limit for the cells of a board, far over any board the game
+     * offers but small enough for a game on every thread.
+     */
+    public static final int DEFAULT_MAX_CELLS = 256 * 256;
+
+    /**
+     * Told about the games that don't pass.
+     */
+    public interface Listener {
+
+        /**
+         * The claims don't match the game played from the replay.
+         *
+         * @param source name of the input
+         * @param index index of the game in the input
+         * @param claimed the submission
+         * @param actual the game played from the replay
+         */
+        void mismatch(String source, long index, Submission claimed, GameEngine actual);
+
+        /**
+         * The replay can't be played or the game didn't end.
+         *
+         * @param source name of the input
+         * @param index index of the game in the input
+         * @param reason what is wrong
+         */
+        void invalid(String source, long index, String reason);
+    }
+
+    /**
+     * Threads playing the games.
+     */
+    private final ThreadPoolExecutor executor;
+    /**
+     * Told about the games that don't pass, called from the worker threads.
+     */
+    private final Listener listener;
+    /**
+     * A game for each thread, reused for boards of the same size.
+     */
+    private final ThreadLocal<GameEngine> games;
+    /**
+     * Number of games checked, games that didn't match and broken games.
+     */
+    private final AtomicLong checked, mismatches, invalid;
+    /**
+     * Largest number of cells allowed on a board.
+     */
+    private final int maxCells;
+    /**
+     * When the verifier was created, nanoseconds.
+     */
+    private final long start;
+    /**
+     * When the last game was checked, nanoseconds.
+     */
+    private long end;
+
+    /**
+     * Create a verifier for boards of up to {@link #DEFAULT_MAX_CELLS} cells.
+     *
+     * @param threads number of threads
+     * @param listener told about the games that don't pass
+     */
+    public ReplayVerifier(int threads, Listener listener) {
+        this(threads, DEFAULT_MAX_CELLS, listener);
+    }
+
+    /**
+     * Create a verifier.
+     *
+     * @param threads number of threads
+     * @param maxCells largest number of cells allowed on a board
+     * @param listener told about the games that don't pass
+     */
+    public ReplayVerifier(int threads, int maxCells, Listener listener) {
+        if (maxCells < 1) {
+            throw new IllegalArgumentException("Invalid cell limit: " + maxCells);
+        }
+        this.maxCells = maxCells;
+        this.listener = listener;
+        // The reading thread plays the game itself when the queue is full.
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(threads * 64),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        games = new ThreadLocal<>();
+        checked = new AtomicLong();
+        mismatches = new AtomicLong();
+        invalid = new AtomicLong();
+        start = System.nanoTime();
+    }
+
+    /**
+     * Check every submission of a stream. Returns when all of them have been
+     * read; call {@link #await()} to wait for the results. A broken stream
+     * or a board over the size limit can't be read past, so the rest of the
+     * stream is skipped.
+     *
+     * @param source name of the input, for the listener
+     * @param in the submissions one after another
+     * @return number of submissions read
+     */
+    public long verify(final String source, InputStream in) {
+        long index = 0;
+        try {
+            Submission submission;
+            while ((submission = Submission.read(in, maxCells)) != null) {
+                final Submission s = submission;
+                final long i = index++;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        check(source, i, s);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            invalid.incrementAndGet();
+            listener.invalid(source, index, e.getMessage());
+        }
+        return index;
+    }
+
+    /**
+     * Check a file or every file of a directory tree.
+     *
+     * @param file the file or directory
+     */
+    public void verifyFile(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            Arrays.sort(files);
+            for (File f : files) {
+                verifyFile(f);
+            }
+            return;
+        }
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            verify(file.getPath(), in);
+        } catch (IOException e) {
+            invalid.incrementAndGet();
+            listener.invalid(file.getPath(), 0, e.getMessage());
+        }
+    }
+
+    /**
+     * Play one submission and compare the results.
+     *
+     * @param source name of the input
+     * @param index index of the game in the input
+     * @param submission the submission
+     */
+    private void check(String source, long index, Submission submission) {
+        Replay replay = submission.getReplay();
+        GameEngine game = games.get();
+        Grid grid = game == null ? null : game.getGrid();
+        if (grid == null || grid.getWidth() != replay.getWidth()
+            || grid.getHeight() != replay.getHeight() || grid.getColors() != replay.getColors()) {
+            try {
+                game = new GameEngine(replay.getWidth(), replay.getHeight(), replay.getColors());
+                game.setRecording(false);
+            } catch (IllegalArgumentException e) {
+                invalid.incrementAndGet();
+                listener.invalid(source, index, e.getMessage());
+                return;
+            }
+            games.set(game);
+        }
+
+        checked.incrementAndGet();
+        try {
+            replay.play(game);
+        } catch (IllegalArgumentException e) {
+            invalid.incrementAndGet();
+            listener.invalid(source, index, e.getMessage());
+            return;
+        }
+        if (game.getGrid().hasMoreMoves()) {
+            invalid.incrementAndGet();
+            listener.invalid(source, index, "The game didn't end.");
+        } else if (!submission.matches(game)) {
+            mismatches.incrementAndGet();
+            listener.mismatch(source, index, submission, game);
+        }
+    }
+
+    /**
+     * Wait for all the games to be checked. The verifier can't be used after
+     * this.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void await() throws InterruptedException {
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+            // Still going.
+        }
+        end = System.nanoTime();
+    }
+
+    /**
+     * @return number of games played
+     */
+    public long getChecked() {
+        return checked.get();
+    }
+
+    /**
+     * @return number of games whose claims were wrong
+     */
+    public long getMismatches() {
+        return mismatches.get();
+    }
+
+    /**
+     * @return number of games that couldn't be played or didn't end
+     */
+    public long getInvalid() {
+        return invalid.get();
+    }
+
+    /**
+     * @return games checked per second from the start to {@link #await()}
+     */
+    public double getGamesPerSecond() {
+        long time = (end == 0 ? System.nanoTime() : end) - start;
+        return time == 0 ? 0 : checked.get() * 1e9 / time;
+    }
+
+    /**
+     * Check the submissions of files, directories or "-" for the standard
+     * input and print the games that don't pass.
+     *
+     * @param args the inputs
+     * @throws InterruptedException if interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayVerifier <file|directory|->...");
+            System.exit(2);
+        }
+        ReplayVerifier verifier = new ReplayVerifier(Runtime.getRuntime().availableProcessors(),
+            new Listener() {
+                @Override
+                public void mismatch(String source, long index, Submission claimed, GameEngine actual) {
+                    System.out.println(source + " #" + index + ": claimed "
+                        + claimed.getTotalScore() + "/" + claimed.getBiggestCluster() + "/"
+                        + claimed.getBubblesPopped() + ", got " + actual.getTotalScore() + "/"
+                        + actual.getBiggestCluster() + "/" + actual.getBubblesPopped());
+                }
+
+                @Override
+                public void invalid(String source, long index, String reason) {
+                    System.out.println(source + " #" + index + ": " + reason);
+                }
+            });
+        for (String arg : args) {
+            if (arg.equals("-")) {
+                verifier.verify("stdin", new BufferedInputStream(System.in));
+            } else {
+                verifier.verifyFile(new File(arg));
+            }
+        }
+        verifier.await();
+        System.out.printf("%d games, %d mismatches, %d invalid, %.0f games/s%n",
+            verifier.getChecked(), verifier.getMismatches(), verifier.getInvalid(),
+            verifier.getGamesPerSecond());
+        System.exit(verifier.getMismatches() + verifier.getInvalid() == 0 ? 0 : 1);
+    }
+}
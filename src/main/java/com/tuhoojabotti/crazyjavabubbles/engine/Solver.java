@@ -0,0 +1,330 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the best possible sequence of moves with a depth-first search over
+ * every move order. Popping the same clusters in a different order often
+ * leads to the same board, so the value of every board seen is kept in a
+ * transposition table keyed by its {@link Zobrist} hash.
+ *
+ * The score is that of {@link GameEngine}: the score of the pops plus the
+ * biggest cluster bonus, without the time bonus. Since the bonus depends on
+ * the biggest cluster popped so far, it's part of the table key.
+ *
+ * Meant for small puzzle boards, up to about 10x10.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class Solver {
+
+    /**
+     * Hashes of the boards in the table, two slots per bucket. The first slot
+     * keeps the board with the most bubbles left (most expensive to search
+     * again), the second slot is always replaced.
+     */
+    private final long[] keys;
+    /**
+     * Best score from the board to the end of the game.
+     */
+    private final int[] values;
+    /**
+     * Bubbles left on the board, 0 if the slot is empty.
+     */
+    private final int[] weights;
+    /**
+     * Index mask of the buckets.
+     */
+    private final int mask;
+    /**
+     * Games of each depth of the search.
+     */
+    private final List<GameEngine> games;
+    /**
+     * Hashes of the boards.
+     */
+    private Zobrist zobrist;
+    /**
+     * Keys of the biggest cluster popped so far.
+     */
+    private long[] biggestKeys;
+    /**
+     * Boards searched.
+     */
+    private long nodes;
+    /**
+     * Table lookups.
+     */
+    private long probes;
+    /**
+     * Table lookups that found the board.
+     */
+    private long hits;
+    /**
+     * Time used by the last solve in nanoseconds.
+     */
+    private long time;
+    /**
+     * Score of the last solution.
+     */
+    private int bestScore;
+
+    /**
+     * Create a solver.
+     *
+     * @param tableBits the table has 2^tableBits slots
+     */
+    public Solver(int tableBits) {
+        if (tableBits < 1 || tableBits > 30) {
+            throw new IllegalArgumentException("Invalid table size: 2^" + tableBits);
+        }
+        keys = new long[1 << tableBits];
+        values = new int[keys.length];
+        weights = new int[keys.length];
+        mask = (keys.length - 1) & ~1;
+        games = new ArrayList<>();
+    }
+
+    /**
+     * Find the best moves from a position. The table is cleared first.
+     *
+     * @param game the position, not changed
+     * @return the moves in order
+     */
+    public List<Move> solve(GameEngine game) {
+        long start = System.nanoTime();
+        Grid grid = game.getGrid();
+        prepare(grid);
+
+        List<Move> solution = new ArrayList<>();
+        GameEngine position = getGame(0, grid);
+        position.copyFrom(game);
+        long hash = zobrist.hash(grid);
+        bestScore = position.getScore() + search(0, hash);
+
+        // Follow the best line, the table remembers most of it.
+        while (!position.listMoves().isEmpty()) {
+            Move best = null;
+            int bestValue = -1;
+            long bestHash = 0;
+            for (Move move : position.listMoves()) {
+                GameEngine child = play(0, move);
+                long childHash = zobrist.update(hash, child.getGrid(), move.getColor());
+                int value = child.getScore() - position.getScore() + search(1, childHash);
+                if (value > bestValue) {
+                    best = move;
+                    bestValue = value;
+                    bestHash = childHash;
+                }
+            }
+            solution.add(best);
+            position.select(best.getX(), best.getY());
+            position.pop();
+            hash = bestHash;
+        }
+        time = System.nanoTime() - start;
+        return solution;
+    }
+
+    /**
+     * Best score from a position to the end of the game.
+     *
+     * @param depth depth of the position
+     * @param hash hash of the board
+     * @return the score
+     */
+    private int search(int depth, long hash) {
+        nodes++;
+        GameEngine game = games.get(depth);
+        long key = hash ^ biggestKeys[game.getBiggestCluster()];
+        int slot = probe(key);
+        if (slot >= 0) {
+            return values[slot];
+        }
+
+        List<Move> moves = game.listMoves();
+        int best = game.getBiggestClusterBonus();
+        if (!moves.isEmpty()) {
+            best = -1;
+            for (Move move : moves) {
+                GameEngine child = play(depth, move);
+                long childHash = zobrist.update(hash, child.getGrid(), move.getColor());
+                int gain = child.getScore() - game.getScore();
+                best = Math.max(best, gain + search(depth + 1, childHash));
+            }
+        }
+        store(key, best, countBubbles(game.getGrid()));
+        return best;
+    }
+
+    /**
+     * Play a move in the game of the next depth.
+     *
+     * @param depth depth of the position
+     * @param move the move
+     * @return the game after the move
+     */
+    private GameEngine play(int depth, Move move) {
+        GameEngine game = games.get(depth);
+        GameEngine child = getGame(depth + 1, game.getGrid());
+        child.copyFrom(game);
+        child.select(move.getX(), move.getY());
+        child.pop();
+        return child;
+    }
+
+    /**
+     * Look up a board in the table.
+     *
+     * @param key hash of the position
+     * @return the slot or -1 if not found
+     */
+    int probe(long key) {
+        probes++;
+        int bucket = (int) key & mask;
+        for (int slot = bucket; slot < bucket + 2; slot++) {
+            if (weights[slot] > 0 && keys[slot] == key) {
+                hits++;
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param slot a slot found by {@link #probe(long)}
+     * @return best score to the end of the board in the slot
+     */
+    int getValue(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Store the value of a board in the table. A board lighter than the one
+     * in the first slot goes to the second slot. Otherwise it takes the
+     * first slot and the board there is moved to the second slot, so that
+     * the second slot always holds the last board pushed out.
+     *
+     * @param key hash of the position
+     * @param value best score to the end
+     * @param bubbles bubbles left
+     */
+    void store(long key, int value, int bubbles) {
+        int slot = (int) key & mask;
+        if (bubbles + 1 < weights[slot]) {
+            slot++;
+        } else if (weights[slot] > 0 && keys[slot] != key) {
+            keys[slot + 1] = keys[slot];
+            values[slot + 1] = values[slot];
+            weights[slot + 1] = weights[slot];
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        weights[slot] = bubbles + 1;
+    }
+
+    /**
+     * Clear the table and make keys for the size of the board.
+     *
+     * @param grid the board
+     */
+    private void prepare(Grid grid) {
+        int cells = grid.getWidth() * grid.getHeight();
+        zobrist = new Zobrist(cells, grid.getColors(), SplitMix64.randomSeed());
+        biggestKeys = new long[cells + 1];
+        SplitMix64 random = new SplitMix64(SplitMix64.randomSeed());
+        for (int i = 0; i < biggestKeys.length; i++) {
+            biggestKeys[i] = random.nextLong();
+        }
+        games.clear();
+        Arrays.fill(weights, 0);
+        nodes = 0;
+        probes = 0;
+        hits = 0;
+    }
+
+    /**
+     * Get the scratch game of a depth. The search never undoes or replays
+     * its moves, so the games don't record them.
+     *
+     * @param depth depth of the search
+     * @param grid board of the right size
+     * @return scratch game of the depth
+     */
+    private GameEngine getGame(int depth, Grid grid) {
+        while (games.size() <= depth) {
+            GameEngine game = new GameEngine(grid.getWidth(), grid.getHeight(),
+                grid.getColors(), new VirtualClock());
+            game.setRecording(false);
+            games.add(game);
+        }
+        return games.get(depth);
+    }
+
+    /**
+     * @param grid the board
+     * @return number of bubbles on the board
+     */
+    private static int countBubbles(Grid grid) {
+        int bubbles = 0;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                bubbles += grid.get(x, y) != Grid.EMPTY ? 1 : 0;
+            }
+        }
+        return bubbles;
+    }
+
+    /**
+     * @return best score of the last solve, without the time bonus
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * @return boards searched by the last solve
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return boards searched per second by the last solve
+     */
+    public double getNodesPerSecond() {
+        return time == 0 ? 0 : nodes * 1e9 / time;
+    }
+
+    /**
+     * @return share of table lookups that found the board, 0 to 1
+     */
+    public double getHitRate() {
+        return probes == 0 ? 0 : hits / (double) probes;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+/**
+ * A small and fast random generator (the one java.util.SplittableRandom is
+ * built on). Only integer arithmetic, so the same seed gives the same numbers
+ * on every machine.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public final class SplitMix64 {
+
+    /**
+     * Added to the state for every number.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * State of the generator.
+     */
+    private long state;
+
+    /**
+     * Create a new generator.
+     *
+     * @param seed the seed
+     */
+    public SplitMix64(long seed) {
+        state = seed;
+    }
+
+    /**
+     * @return the next 64 random bits
+     */
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param bound upper bound, must be positive
+     * @return a random number between 0 (inclusive) and bound (exclusive)
+     */
+    public int nextInt(int bound) {
+        return scale((int) nextLong(), bound);
+    }
+
+    /**
+     * Scale 32 random bits to a range with a multiplication instead of a
+     * division.
+     *
+     * @param bits 32 random bits
+     * @param bound upper bound
+     * @return a number between 0 (inclusive) and bound (exclusive)
+     */
+    public static int scale(int bits, int bound) {
+        return (int) (((bits & 0xffffffffL) * bound) >>> 32);
+    }
+
+    /**
+     * Create a seed from the clock for when reproducing doesn't matter.
+     *
+     * @return a new seed
+     */
+    public static long randomSeed() {
+        return new SplitMix64(System.nanoTime() ^ System.currentTimeMillis()).nextLong();
+    }
+}
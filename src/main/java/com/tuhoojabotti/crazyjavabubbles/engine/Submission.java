@@ -0,0 +1,146 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A finished game sent to the leaderboard: the replay and the results the
+ * player claims. Submissions can be written one after another to the same
+ * stream.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class Submission {
+
+    /**
+     * Claimed results.
+     */
+    private final int totalScore, biggestCluster, bubblesPopped;
+    /**
+     * Recording of the game.
+     */
+    private final Replay replay;
+
+    /**
+     * Create a submission.
+     *
+     * @param totalScore claimed total score
+     * @param biggestCluster claimed biggest cluster
+     * @param bubblesPopped claimed number of bubbles popped
+     * @param replay recording of the game
+     */
+    public Submission(int totalScore, int biggestCluster, int bubblesPopped, Replay replay) {
+        this.totalScore = totalScore;
+        this.biggestCluster = biggestCluster;
+        this.bubblesPopped = bubblesPopped;
+        this.replay = replay;
+    }
+
+    /**
+     * Create a submission of a finished game.
+     *
+     * @param game the game
+     */
+    public Submission(GameEngine game) {
+        this(game.getTotalScore(), game.getBiggestCluster(), game.getBubblesPopped(),
+            game.getReplay());
+    }
+
+    /**
+     * Write the submission: the claims as varints, then the replay.
+     *
+     * @param out the stream
+     * @throws IOException if writing fails
+     */
+    public void write(OutputStream out) throws IOException {
+        byte[] claims = new byte[30];
+        int i = Varint.write(claims, 0, Varint.zigZag(totalScore));
+        i = Varint.write(claims, i, biggestCluster);
+        i = Varint.write(claims, i, bubblesPopped);
+        out.write(claims, 0, i);
+        replay.write(out);
+    }
+
+    /**
+     * Read the next submission.
+     *
+     * @param in the stream
+     * @return the submission or null if the stream ended
+     * @throws IOException if reading fails or the data is broken
+     */
+    public static Submission read(InputStream in) throws IOException {
+        return read(in, Grid.MAX_SIZE * Grid.MAX_SIZE);
+    }
+
+    /**
+     * Read the next submission, refusing boards bigger than a limit.
+     *
+     * @param in the stream
+     * @param maxCells largest number of cells allowed on the board
+     * @return the submission or null if the stream ended
+     * @throws IOException if reading fails, the data is broken or the board
+     * is too big
+     */
+    public static Submission read(InputStream in, int maxCells) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        int total = (int) Varint.unZigZag(Varint.read(in, first)),
+            biggest = (int) Varint.read(in),
+            popped = (int) Varint.read(in);
+        return new Submission(total, biggest, popped, Replay.read(in, maxCells));
+    }
+
+    /**
+     * Check the claims against a game played from the replay.
+     *
+     * @param game the game
+     * @return true if all the claims are right
+     */
+    public boolean matches(GameEngine game) {
+        return totalScore == game.getTotalScore()
+            && biggestCluster == game.getBiggestCluster()
+            && bubblesPopped == game.getBubblesPopped();
+    }
+
+    public int getTotalScore() {
+        return totalScore;
+    }
+
+    public int getBiggestCluster() {
+        return biggestCluster;
+    }
+
+    public int getBubblesPopped() {
+        return bubblesPopped;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+}
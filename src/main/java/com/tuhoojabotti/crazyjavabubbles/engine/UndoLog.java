@@ -0,0 +1,240 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.Arrays;
+
+/**
+ * Undo and redo history of the pops of a game. Every pop is stored as a
+ * diff: the color and cells of the popped cluster, the moves of the bubbles
+ * that fell and the score before the pop. All of it goes to one int array,
+ * so a pop costs a few ints per changed cell and no objects.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class UndoLog {
+
+    /**
+     * Offsets of the fields in an entry.
+     */
+    private static final int COLOR = 0, SCORE = 1, POPPED_TOTAL = 2,
+        BIGGEST = 3, POPPED = 4;
+
+    /**
+     * The entries one after another.
+     */
+    private int[] data;
+    /**
+     * Start of each entry in data.
+     */
+    private int[] starts;
+    /**
+     * Number of entries, including the undone ones.
+     */
+    private int size;
+    /**
+     * Number of entries that are done, the rest can be redone.
+     */
+    private int position;
+
+    /**
+     * Create an empty log.
+     */
+    public UndoLog() {
+        data = new int[256];
+        starts = new int[16];
+    }
+
+    /**
+     * Record a pop. Undone entries are forgotten.
+     *
+     * @param grid the board right after the pop
+     * @param score score before the pop
+     * @param poppedTotal bubbles popped before the pop
+     * @param biggest biggest cluster before the pop
+     */
+    public void record(Grid grid, int score, int poppedTotal, int biggest) {
+        Gravity gravity = grid.getGravity();
+        int start = position == 0 ? 0 : end(position - 1),
+            length = POPPED + 2 + grid.getPoppedCount() + gravity.getCount() * 2;
+        if (data.length < start + length) {
+            data = Arrays.copyOf(data, Math.max(start + length, data.length * 2));
+        }
+        if (starts.length <= position) {
+            starts = Arrays.copyOf(starts, starts.length * 2);
+        }
+
+        int i = start;
+        data[i++] = grid.getPoppedColor();
+        data[i++] = score;
+        data[i++] = poppedTotal;
+        data[i++] = biggest;
+        data[i++] = grid.getPoppedCount();
+        for (int j = 0; j < grid.getPoppedCount(); j++) {
+            data[i++] = grid.getPopped(j);
+        }
+        data[i++] = gravity.getCount();
+        for (int j = 0; j < gravity.getCount(); j++) {
+            data[i++] = gravity.getFrom(j);
+            data[i++] = gravity.getTo(j);
+        }
+        starts[position++] = start;
+        size = position;
+    }
+
+    /**
+     * @param entry index of an entry
+     * @return where the next entry starts
+     */
+    private int end(int entry) {
+        int moves = POPPED + 1 + getPoppedCount(entry);
+        return starts[entry] + moves + 1 + data[starts[entry] + moves] * 2;
+    }
+
+    /**
+     * Step back one entry.
+     *
+     * @return index of the entry to revert
+     */
+    public int undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("Nothing to undo.");
+        }
+        return --position;
+    }
+
+    /**
+     * Step forward one entry.
+     *
+     * @return index of the entry to apply again
+     */
+    public int redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("Nothing to redo.");
+        }
+        return position++;
+    }
+
+    /**
+     * Forget everything.
+     */
+    public void clear() {
+        size = 0;
+        position = 0;
+    }
+
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    public boolean canRedo() {
+        return position < size;
+    }
+
+    /**
+     * @return number of entries that are done
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @param entry index of an entry
+     * @return color of the popped cluster
+     */
+    public byte getColor(int entry) {
+        return (byte) data[starts[entry] + COLOR];
+    }
+
+    /**
+     * @param entry index of an entry
+     * @return score before the pop
+     */
+    public int getScore(int entry) {
+        return data[starts[entry] + SCORE];
+    }
+
+    /**
+     * @param entry index of an entry
+     * @return bubbles popped before the pop
+     */
+    public int getPoppedTotal(int entry) {
+        return data[starts[entry] + POPPED_TOTAL];
+    }
+
+    /**
+     * @param entry index of an entry
+     * @return biggest cluster before the pop
+     */
+    public int getBiggestCluster(int entry) {
+        return data[starts[entry] + BIGGEST];
+    }
+
+    /**
+     * @param entry index of an entry
+     * @return number of bubbles popped
+     */
+    public int getPoppedCount(int entry) {
+        return data[starts[entry] + POPPED];
+    }
+
+    /**
+     * @param entry index of an entry
+     * @param i index of the popped bubble
+     * @return cell of the popped bubble
+     */
+    public int getPopped(int entry, int i) {
+        return data[starts[entry] + POPPED + 1 + i];
+    }
+
+    /**
+     * @param entry index of an entry
+     * @return number of bubbles that fell
+     */
+    public int getMoveCount(int entry) {
+        return data[starts[entry] + POPPED + 1 + getPoppedCount(entry)];
+    }
+
+    /**
+     * @param entry index of an entry
+     * @param i index of the move
+     * @return old cell of the moved bubble
+     */
+    public int getFrom(int entry, int i) {
+        return data[starts[entry] + POPPED + 2 + getPoppedCount(entry) + i * 2];
+    }
+
+    /**
+     * @param entry index of an entry
+     * @param i index of the move
+     * @return new cell of the moved bubble
+     */
+    public int getTo(int entry, int i) {
+        return data[starts[entry] + POPPED + 3 + getPoppedCount(entry) + i * 2];
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Numbers written with 7 bits per byte, the high bit telling that more bytes
+ * follow. Small numbers take one byte.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+final class Varint {
+
+    private Varint() {
+    }
+
+    /**
+     * Write a number.
+     *
+     * @param bytes the buffer
+     * @param i where to write
+     * @param value the number, not negative
+     * @return where the next write goes
+     */
+    static int write(byte[] bytes, int i, long value) {
+        while ((value & ~0x7FL) != 0) {
+            bytes[i++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        bytes[i++] = (byte) value;
+        return i;
+    }
+
+    /**
+     * Read a number.
+     *
+     * @param in the stream
+     * @return the number
+     * @throws IOException if reading fails
+     */
+    static long read(InputStream in) throws IOException {
+        return read(in, readByte(in));
+    }
+
+    /**
+     * Read a number whose first byte has already been read.
+     *
+     * @param in the stream
+     * @param first the first byte
+     * @return the number
+     * @throws IOException if reading fails
+     */
+    static long read(InputStream in, int first) throws IOException {
+        long value = first & 0x7F;
+        for (int shift = 7, b = first; (b & 0x80) != 0; shift += 7) {
+            if (shift >= 64) {
+                throw new IOException("Invalid number in replay.");
+            }
+            b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+        }
+        return value;
+    }
+
+    /**
+     * Map signed numbers to unsigned so that small negative numbers stay
+     * small.
+     *
+     * @param value the number
+     * @return the number to write
+     */
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Undo {@link #zigZag(long)}.
+     *
+     * @param value the number read
+     * @return the signed number
+     */
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @param in the stream
+     * @return the next byte
+     * @throws IOException if the stream ended
+     */
+    static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new IOException("Replay ended too early.");
+        }
+        return b;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+/**
+ * Time that only moves when told to, for simulations and tests. A bot can
+ * play a game of several minutes in no time and still get the time bonus of
+ * a player.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class VirtualClock implements Clock {
+
+    /**
+     * Current time in milliseconds.
+     */
+    private volatile long time;
+
+    /**
+     * Create a clock starting at zero.
+     */
+    public VirtualClock() {
+        this(0);
+    }
+
+    /**
+     * Create a clock.
+     *
+     * @param time starting time in milliseconds
+     */
+    public VirtualClock(long time) {
+        this.time = time;
+    }
+
+    @Override
+    public long millis() {
+        return time;
+    }
+
+    /**
+     * Move the time forward.
+     *
+     * @param millis milliseconds to move, not negative
+     */
+    public void advance(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Time can't go backwards: " + millis);
+        }
+        time += millis;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+/**
+ * Zobrist hashing of boards: every color in every cell has a random key and
+ * the hash of a board is the XOR of the keys of its bubbles. A pop only
+ * changes the keys of the popped and moved bubbles, so the hash can be
+ * updated without going through the whole board.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class Zobrist {
+
+    /**
+     * Key of each color in each cell, indexed by cell * colors + color - 1.
+     */
+    private final long[] keys;
+    /**
+     * Number of different colors.
+     */
+    private final int colors;
+
+    /**
+     * Create the keys for boards of a size.
+     *
+     * @param cells number of cells on the board
+     * @param colors number of different colors
+     * @param seed seed of the keys
+     */
+    public Zobrist(int cells, int colors, long seed) {
+        this.colors = colors;
+        keys = new long[cells * colors];
+        SplitMix64 random = new SplitMix64(seed);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * @param cell index of the cell
+     * @param color color of the bubble
+     * @return key of the bubble
+     */
+    public long getKey(int cell, byte color) {
+        return keys[cell * colors + color - 1];
+    }
+
+    /**
+     * Hash a whole board.
+     *
+     * @param grid the board
+     * @return the hash
+     */
+    public long hash(Grid grid) {
+        long hash = 0;
+        int width = grid.getWidth();
+        for (int cell = 0; cell < width * grid.getHeight(); cell++) {
+            byte color = grid.get(cell % width, cell / width);
+            if (color != Grid.EMPTY) {
+                hash ^= getKey(cell, color);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Update a hash after {@link Grid#pop()}.
+     *
+     * @param hash hash before the pop
+     * @param grid the board after the pop
+     * @param color color of the popped cluster
+     * @return hash after the pop
+     */
+    public long update(long hash, Grid grid, byte color) {
+        for (int i = 0; i < grid.getPoppedCount(); i++) {
+            hash ^= getKey(grid.getPopped(i), color);
+        }
+        Gravity gravity = grid.getGravity();
+        int width = grid.getWidth();
+        for (int i = 0; i < gravity.getCount(); i++) {
+            int to = gravity.getTo(i);
+            byte moved = grid.get(to % width, to / width);
+            hash ^= getKey(gravity.getFrom(i), moved) ^ getKey(to, moved);
+        }
+        return hash;
+    }
+}
@@ -23,66 +23,99 @@
  */
 package com.tuhoojabotti.crazyjavabubbles.logic;
 
+import com.tuhoojabotti.crazyjavabubbles.engine.ClusterLabels;
+import com.tuhoojabotti.crazyjavabubbles.engine.Gravity;
+import com.tuhoojabotti.crazyjavabubbles.engine.Grid;
+import com.tuhoojabotti.crazyjavabubbles.engine.Move;
+import com.tuhoojabotti.crazyjavabubbles.engine.UndoLog;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
 import java.util.Set;
+import org.newdawn.slick.Color;
 
 /**
- * The logic of the game, it's all here.
+ * The board of the game. The rules run on a {@link Grid}, the
+ * {@link Bubble}s are only views of it for the renderers.
  *
  * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
  */
 public class Board {
 
     /**
-     * Contents of the whole board
+     * The state of the board.
+     */
+    private Grid grid;
+    /**
+     * Bubbles of the board for rendering, follow the cells around.
      */
     private Bubble[][] bubbles;
     /**
-     * Contents of the selection
+     * Told about the changes of the board.
      */
-    private Set<Bubble> selection;
+    private final List<BoardListener> listeners;
+
     /**
-     * Width of the board
+     * Create new board.
+     *
+     * @param w width
+     * @param h height
+     * @param colors number of different colors
      */
-    private int width;
+    public Board(int w, int h, int colors) {
+        this(new Grid(w, h, colors));
+    }
+
     /**
-     * Height of the board
+     * Create new board for an existing grid.
+     *
+     * @param grid the state of the board
      */
-    private int height;
+    public Board(Grid grid) {
+        if (grid.getColors() > Bubble.PALETTE.length) {
+            throw new IllegalArgumentException("Only " + Bubble.PALETTE.length
+                + " colors available, not " + grid.getColors() + ".");
+        }
+        this.grid = grid;
+        bubbles = new Bubble[grid.getHeight()][grid.getWidth()];
+        listeners = new ArrayList<>();
+    }
+
     /**
-     * Does the board contain any valid moves?
+     * Start telling a listener about the changes of the board. The current
+     * bubbles are in {@link #getBubbles()}.
+     *
+     * @param listener the listener
      */
-    private boolean hasMoreMoves;
+    public void addListener(BoardListener listener) {
+        listeners.add(listener);
+    }
 
     /**
-     * Create new board.
+     * Stop telling a listener about the changes of the board.
      *
-     * @param w width
-     * @param h height
+     * @param listener the listener
      */
-    public Board(int w, int h) {
-        bubbles = new Bubble[h][w];
-        width = w;
-        height = h;
+    public void removeListener(BoardListener listener) {
+        listeners.remove(listener);
     }
 
     /**
      * initialize the board.
      */
     protected void init() {
-        selection = new HashSet<>();
-        hasMoreMoves = false;
+        grid.randomize();
+        createBubbles();
+    }
 
-        // Randomize board until we have moves left. (Should just take one loop.)
-        while (!hasMoreMoves) {
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    bubbles[y][x] = new Bubble(x, y);
-                }
+    /**
+     * Create the bubbles for the current content of the grid.
+     */
+    protected void createBubbles() {
+        for (int y = 0; y < getHeight(); y++) {
+            for (int x = 0; x < getWidth(); x++) {
+                bubbles[y][x] = new Bubble(Bubble.PALETTE[grid.get(x, y) - 1], x, y);
             }
-            updateHasMoreMoves();
         }
     }
 
@@ -92,22 +125,65 @@ public class Board {
      * @return the set of bubbles that were removed
      */
     protected Set<Bubble> pop() {
-        if (selection.size() < 2) {
+        if (grid.pop() < 2) {
             return null; // Can't pop if selection is smaller than 2.
         }
+        return removePopped();
+    }
 
-        // Remove selected bubbles from the board.
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (selection.contains(bubbles[y][x])) {
-                    bubbles[y][x].pop();
-                    bubbles[y][x] = null;
-                }
+    /**
+     * Remove the bubbles of the last pop of the grid and move the rest.
+     *
+     * @return the set of bubbles that were removed
+     */
+    protected Set<Bubble> removePopped() {
+        int count = grid.getPoppedCount();
+        Set<Bubble> popped = new HashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            int cell = grid.getPopped(i),
+                x = cell % getWidth(),
+                y = cell / getWidth();
+            bubbles[y][x].pop();
+            popped.add(bubbles[y][x]);
+            for (BoardListener listener : listeners) {
+                listener.bubblePopped(bubbles[y][x], x, y);
+            }
+            bubbles[y][x] = null;
+        }
+
+        moveBubbles();
+        return popped;
+    }
+
+    /**
+     * Give new bubbles to the cells of an undone pop and move the fallen
+     * bubbles back up.
+     *
+     * @param log the history
+     * @param entry the pop that was undone
+     */
+    protected void restorePopped(UndoLog log, int entry) {
+        for (int i = log.getMoveCount(entry) - 1; i >= 0; i--) {
+            moveBubble(log.getTo(entry, i), log.getFrom(entry, i));
+        }
+        Color color = Bubble.PALETTE[log.getColor(entry) - 1];
+        for (int i = 0; i < log.getPoppedCount(entry); i++) {
+            int cell = log.getPopped(entry, i),
+                x = cell % getWidth(),
+                y = cell / getWidth();
+            bubbles[y][x] = new Bubble(color, x, y);
+            for (BoardListener listener : listeners) {
+                listener.bubbleAdded(bubbles[y][x], x, y);
             }
         }
+    }
 
-        updateBubblePositions();
-        return selection;
+    /**
+     * Deselect the bubbles of the selection before the clusters change.
+     */
+    protected void clearSelection() {
+        setSelected(grid.getSelected(), false);
+        grid.select(-1, -1);
     }
 
     public Bubble[][] getBubbles() {
@@ -115,35 +191,93 @@ public class Board {
     }
 
     /**
-     * Set the content of the board manually (for tests).
+     * Set the content of the board manually (for tests). Bubbles of the same
+     * color get the same color on the board.
      *
      * @param newBubbles the new bubbles
      */
     protected void setBubbles(Bubble[][] newBubbles) {
+        int w = newBubbles[0].length,
+            h = newBubbles.length;
+        byte[] cells = new byte[w * h];
+
+        List<Color> colors = new ArrayList<>();
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                Bubble b = newBubbles[y][x];
+                if (b == null) {
+                    continue;
+                }
+                int color = colors.indexOf(b.getColor());
+                if (color < 0) {
+                    color = colors.size();
+                    colors.add(b.getColor());
+                }
+                cells[y * w + x] = (byte) (color + 1);
+            }
+        }
+
+        grid = new Grid(w, h, Math.max(1, colors.size()));
+        grid.setCells(cells);
         bubbles = newBubbles;
-        height = bubbles.length;
-        width = bubbles[0].length;
-        updateHasMoreMoves();
     }
 
+    /**
+     * Get the selected bubbles.
+     *
+     * @return a new set of the selected bubbles
+     */
     protected Set<Bubble> getSelection() {
-        return selection;
+        Set<Bubble> set = new HashSet<>();
+        ClusterLabels clusters = grid.getClusters();
+        int selected = grid.getSelected();
+        if (selected != ClusterLabels.NONE) {
+            for (int cell = clusters.getFirst(selected); cell != ClusterLabels.NONE;
+                cell = clusters.getNext(cell)) {
+                set.add(bubbles[cell / getWidth()][cell % getWidth()]);
+            }
+        }
+        return set;
     }
 
     /**
-     * Select {@link Bubble}s from the board.
+     * Select {@link Bubble}s from the board. The clusters are already known,
+     * so only the bubbles of the old and the new selection are touched.
      *
      * @param x
      * @param y
      */
     protected void select(int x, int y) {
-        updateSelection(x, y);
-        // Tell the individual bubbles if they're selected or not for rendering.
-        for (y = 0; y < height; y++) {
-            for (x = 0; x < width; x++) {
-                Bubble b = bubbles[y][x];
-                if (b != null) {
-                    b.setSelected(selection.contains(b));
+        int old = grid.getSelected();
+        if (grid.select(x, y)) {
+            // Tell the individual bubbles if they're selected or not for rendering.
+            setSelected(old, false);
+            setSelected(grid.getSelected(), true);
+        }
+    }
+
+    /**
+     * Mark the bubbles of a cluster selected or not selected.
+     *
+     * @param label label of the cluster
+     * @param value is it selected
+     */
+    private void setSelected(int label, boolean value) {
+        if (label == ClusterLabels.NONE) {
+            return;
+        }
+        ClusterLabels clusters = grid.getClusters();
+        for (int cell = clusters.getFirst(label); cell != ClusterLabels.NONE;
+            cell = clusters.getNext(cell)) {
+            Bubble b = bubbles[cell / getWidth()][cell % getWidth()];
+            if (b != null) {
+                b.setSelected(value);
+                for (BoardListener listener : listeners) {
+                    if (value) {
+                        listener.selectionEntered(b);
+                    } else {
+                        listener.selectionLeft(b);
+                    }
                 }
             }
         }
@@ -155,166 +289,75 @@ public class Board {
      * @return whether groups exist on the board or not.
      */
     protected boolean hasMoreMoves() {
-        return hasMoreMoves;
+        return grid.hasMoreMoves();
     }
 
     /**
-     * Is the point on the board?
+     * List the legal moves without selecting anything.
      *
-     * @param x
-     * @param y
-     * @return true or false
+     * @return one move for each cluster of two or more bubbles
      */
-    private boolean isOnBoard(int x, int y) {
-        return x >= 0 && x < width
-                && y >= 0 && y < height && bubbles[y][x] != null;
+    public List<Move> listMoves() {
+        return grid.listMoves();
     }
 
     /**
-     * Get a bubble. 
-     * @param x
-     * @param y
-     * @return a Bubble from the board or null if out of bounds
+     * @return number of clusters indexed by size
      */
-    private Bubble get(int x, int y) {
-        if (!isOnBoard(x, y)) {
-            return null;
-        }
-        return bubbles[y][x];
+    public int[] getSizeHistogram() {
+        return grid.getSizeHistogram();
     }
 
-    /**
-     * Update bubble selection.
-     * USes breadth-first search algorithm.
-     *
-     * @param startX the x-coordinate of the new selection
-     * @param startY the y-coordinate of the new selection
-     */
-    private void updateSelection(int startX, int startY) {
-        selection = new HashSet<>(); // Could be .clear(), but this is for test.
-
-        if (isOnBoard(startX, startY)) {
-            selectNeighbours(startX, startY);
-        }
-
-        // Can't select just one bubble.
-        if (selection.size() == 1) {
-            selection.clear();
-        }
+    public Grid getGrid() {
+        return grid;
     }
 
-    /**
-     * Basically do a BFS on the board and select all neighbours.
-     *
-     * @param startX the x-coordinate of the new selection
-     * @param startY the y-coordinate of the new selection
-     */
-    private void selectNeighbours(int startX, int startY) {
-        Queue<Bubble> queue = new LinkedList<>();
-        queue.add(get(startX, startY));
-
-        while (!queue.isEmpty()) {
-            Bubble current = queue.poll();
-            queueIfMatches(current, queue, current.x + 1, current.y);
-            queueIfMatches(current, queue, current.x - 1, current.y);
-            queueIfMatches(current, queue, current.x, current.y + 1);
-            queueIfMatches(current, queue, current.x, current.y - 1);
-            selection.add(current);
-        }
+    public int getWidth() {
+        return grid.getWidth();
     }
 
-    /**
-     * Add Bubble to BFS queue if matches with current one.
-     * @param current current Bubble processed
-     * @param queue the queue
-     * @param x the new Bubble's x-coordinate
-     * @param y the new Bubble's y-coordinate
-     */
-    private void queueIfMatches(Bubble current, Queue<Bubble> queue, float x, float y) {
-        Bubble next = get((int) x, (int) y);
-        if (current.equals(next) && !selection.contains(next)) {
-            queue.add(next);
-        }
+    public int getHeight() {
+        return grid.getHeight();
     }
 
     /**
      * Update the Bubbles on the board.
      */
     protected void updateBubblePositions() {
-        // Run updateBubblePositions until we didn't move anything.
-        if (moveBubblesDown() || moveBubblesLeft()) {
-            updateBubblePositions();
-        }
-        updateHasMoreMoves();
+        // The labels of the selection won't be valid after moving.
+        setSelected(grid.getSelected(), false);
+        grid.drop();
+        moveBubbles();
     }
 
     /**
-     * Move bubbles hanging in the air down.
-     *
-     * @return true if something moved
+     * Move the bubble views to where the last drop took their cells.
      */
-    private boolean moveBubblesDown() {
-        boolean moved = false;
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                Bubble b = bubbles[y][x];
-                if (b == null && isOnBoard(x, y - 1)) {
-                    moved = true;
-                    moveBubble(get(x, y - 1), x, y);
-                }
-            }
+    private void moveBubbles() {
+        Gravity gravity = grid.getGravity();
+        for (int i = 0; i < gravity.getCount(); i++) {
+            moveBubble(gravity.getFrom(i), gravity.getTo(i));
         }
-        return moved;
     }
 
     /**
-     * Pack bubbles to the left.
+     * Move a bubble view to where its cell went.
      *
-     * @return true if something moved
+     * @param from old cell index
+     * @param to new cell index
      */
-    private boolean moveBubblesLeft() {
-        boolean moved = false;
-        for (int x = 0; x < width; x++) {
-            if (!isOnBoard(x, height - 1) && isOnBoard(x + 1, height - 1)) {
-                moved = true;
-                for (int y = 0; y < height; y++) {
-                    if (isOnBoard(x + 1, y)) {
-                        moveBubble(get(x + 1, y), x, y);
-                    }
-                }
+    private void moveBubble(int from, int to) {
+        int w = getWidth(),
+            x = to % w,
+            y = to / w;
+        Bubble bubble = bubbles[from / w][from % w];
+        bubbles[from / w][from % w] = null;
+        if (bubble != null) {
+            bubble.set(x, y);
+            for (BoardListener listener : listeners) {
+                listener.bubbleMoved(bubble, from % w, from / w, x, y);
             }
         }
-        return moved;
-    }
-
-    /**
-     * Move a bubble to a new location on the board.
-     *
-     * @param bubble the bubble to move
-     * @param x new x-coordinate
-     * @param y new y-coordinate
-     */
-    private void moveBubble(Bubble bubble, int x, int y) {
-        bubbles[(int) bubble.y][(int) bubble.x] = null;
-        bubble.set(x, y);
         bubbles[y][x] = bubble;
     }
-
-    /**
-     * Check if the board still has moves left. Basically checks if there
-     * exists two bubbles of the same color together somewhere.
-     */
-    private void updateHasMoreMoves() {
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                Bubble b = bubbles[y][x];
-                if (b != null && (b.equals(get(x + 1, y))
-                        || b.equals(get(x, y + 1)))) {
-                    hasMoreMoves = true;
-                    return; // No need to check further.
-                }
-            }
-        }
-        hasMoreMoves = false;
-    }
 }
@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.logic;
+
+/**
+ * Gets told about the changes of a {@link Board} as they happen, so that
+ * nothing has to look through the whole board for them.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public interface BoardListener {
+
+    /**
+     * A bubble was popped and removed from the board. It leaves the
+     * selection without {@link #selectionLeft(Bubble)}.
+     *
+     * @param bubble the bubble
+     * @param x its column
+     * @param y its row
+     */
+    void bubblePopped(Bubble bubble, int x, int y);
+
+    /**
+     * A bubble fell or was packed to another cell.
+     *
+     * @param bubble the bubble
+     * @param fromX old column
+     * @param fromY old row
+     * @param toX new column
+     * @param toY new row
+     */
+    void bubbleMoved(Bubble bubble, int fromX, int fromY, int toX, int toY);
+
+    /**
+     * A bubble was put back on the board by an undo.
+     *
+     * @param bubble the bubble
+     * @param x its column
+     * @param y its row
+     */
+    void bubbleAdded(Bubble bubble, int x, int y);
+
+    /**
+     * A bubble became part of the selection.
+     *
+     * @param bubble the bubble
+     */
+    void selectionEntered(Bubble bubble);
+
+    /**
+     * A bubble is no longer part of the selection.
+     *
+     * @param bubble the bubble
+     */
+    void selectionLeft(Bubble bubble);
+}
@@ -35,6 +35,19 @@ import org.newdawn.slick.geom.Vector2f;
  */
 public class Bubble extends Vector2f {
 
+    /**
+     * The colors a Bubble can have.
+     */
+    public static final Color[] PALETTE = new Color[]{
+        Color.red, new Color(0.3f, 0.5f, 1f), Color.green, Color.yellow,
+        Color.magenta, Color.orange, Color.cyan, Color.white
+    };
+
+    /**
+     * Random generator for the colors, shared by all bubbles.
+     */
+    private static final Random RANDOM = new Random();
+
     /**
      * Color of the Bubble
      */
@@ -59,9 +72,7 @@ public class Bubble extends Vector2f {
         selected = false;
         popped = false;
 
-        this.color = new Color[]{
-            Color.red, new Color(0.3f, 0.5f, 1f), Color.green, Color.yellow
-        }[new Random().nextInt(4)];
+        this.color = PALETTE[RANDOM.nextInt(CrazyGameLogic.DEFAULT_COLORS)];
     }
 
     /**
@@ -23,43 +23,37 @@
  */
 package com.tuhoojabotti.crazyjavabubbles.logic;
 
+import com.tuhoojabotti.crazyjavabubbles.engine.GameEngine;
+import com.tuhoojabotti.crazyjavabubbles.engine.Grid;
+import com.tuhoojabotti.crazyjavabubbles.engine.Move;
 import static com.tuhoojabotti.crazyjavabubbles.main.Util.getPositionOnBoard;
 import java.awt.Point;
 import java.util.Set;
 import org.newdawn.slick.geom.Vector2f;
 
 /**
- * Handles updating of the game logic from the game class.
+ * Handles updating of the game logic from the game class. The rules are in
+ * the {@link GameEngine}, this adapts it to the mouse and the renderers.
  *
  * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
  */
 public class CrazyGameLogic {
 
     /**
-     * Score of the game.
+     * Size and colors of the original board.
      */
-    private int score;
-    /**
-     * Total Bubbles popped.
-     */
-    private int poppedTotal;
-    /**
-     * Biggest cluster popped.
-     */
-    private int biggestCluster;
-    /**
-     * Start time of the game.
-     */
-    private long startTime;
+    public static final int DEFAULT_WIDTH = 24,
+        DEFAULT_HEIGHT = 17,
+        DEFAULT_COLORS = 4;
+
     /**
-     * End time of the game.
+     * The rules of the game.
      */
-    private long endTime;
-
+    private final GameEngine engine;
     /**
      * Game board.
      */
-    private final Board board;
+    private Board board;
     /**
      * The last point of selection. If the mouse doesn't move, don't update
      * selection.
@@ -67,10 +61,32 @@ public class CrazyGameLogic {
     private final Point lastSelection;
 
     /**
-     * Create new {@link CrazyGame} logic.
+     * Create new {@link CrazyGame} logic with the default board.
      */
     public CrazyGameLogic() {
-        board = new Board(24, 17);
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT, DEFAULT_COLORS);
+    }
+
+    /**
+     * Create new {@link CrazyGame} logic.
+     *
+     * @param width width of the board
+     * @param height height of the board
+     * @param colors number of different colors
+     */
+    public CrazyGameLogic(int width, int height, int colors) {
+        this(new GameEngine(width, height, colors));
+    }
+
+    /**
+     * Create new {@link CrazyGame} logic for a game, for example one with a
+     * {@link com.tuhoojabotti.crazyjavabubbles.engine.VirtualClock}.
+     *
+     * @param engine the game
+     */
+    public CrazyGameLogic(GameEngine engine) {
+        this.engine = engine;
+        board = new Board(engine.getGrid());
         lastSelection = new Point(-1, -1);
     }
 
@@ -78,53 +94,59 @@ public class CrazyGameLogic {
      * Initialise the logic.
      */
     public void init() {
-        startTime = System.currentTimeMillis();
-        board.init();
-        score = 0;
-        poppedTotal = 0;
-        biggestCluster = 0;
+        engine.init();
+        board.createBubbles();
+    }
+
+    /**
+     * Initialise the logic with a ready board.
+     *
+     * @param grid the board to play on
+     */
+    public void init(Grid grid) {
+        engine.init(grid);
+        board = new Board(grid);
+        board.createBubbles();
     }
 
     public boolean isGameOver() {
-        if (board.hasMoreMoves()) {
-            endTime = System.currentTimeMillis();
-            return false;
-        }
-        return true;
+        return engine.isGameOver();
     }
 
     public int getTotalScore() {
-        return (int) Math.round(score
-            + getBiggestClusterBonus()
-            - getTimeBonus());
+        return engine.getTotalScore();
     }
 
     public int getScore() {
-        return score;
+        return engine.getScore();
     }
 
     public int getBiggestClusterBonus() {
-        return (int) Math.pow(biggestCluster, 3);
+        return engine.getBiggestClusterBonus();
     }
 
     public int getBiggestCluster() {
-        return biggestCluster;
+        return engine.getBiggestCluster();
     }
 
     public int getTimeBonus() {
-        return (int) Math.pow(getTime(), 3);
+        return engine.getTimeBonus();
     }
 
     public int getBubblesPopped() {
-        return poppedTotal;
+        return engine.getBubblesPopped();
     }
 
     public Board getBoard() {
         return board;
     }
 
+    public GameEngine getEngine() {
+        return engine;
+    }
+
     public int getTime() {
-        return (int) Math.round((endTime - startTime) / 1000);
+        return engine.getTime();
     }
 
     /**
@@ -133,13 +155,40 @@ public class CrazyGameLogic {
      * @return all the bubbles that were popped
      */
     public Set<Bubble> pop() {
-        Set<Bubble> popped = board.pop();
+        if (engine.pop() == 0) {
+            return null;
+        }
+        return board.removePopped();
+    }
 
-        if (popped != null) {
-            updateScore(popped.size());
+    /**
+     * Take back the last pop. The selection is updated on the next
+     * {@link #updateSelection(Vector2f)}.
+     *
+     * @return false if there was nothing to undo
+     */
+    public boolean undo() {
+        board.clearSelection();
+        if (!engine.undo()) {
+            return false;
         }
+        board.restorePopped(engine.getHistory(), engine.getHistory().getPosition());
+        lastSelection.setLocation(-1, -1);
+        return true;
+    }
 
-        return popped;
+    /**
+     * Pop again the last pop that was undone.
+     *
+     * @return the bubbles popped or null if there was nothing to redo
+     */
+    public Set<Bubble> redo() {
+        board.clearSelection();
+        if (engine.redo() == 0) {
+            return null;
+        }
+        lastSelection.setLocation(-1, -1);
+        return board.removePopped();
     }
 
     /**
@@ -168,14 +217,15 @@ public class CrazyGameLogic {
     }
 
     /**
-     * Update the score of the game.
+     * Select the cluster of a hinted move. The selection follows the mouse
+     * again when it moves.
      *
-     * @param popped amount of bubbles popped
+     * @param move the move or null for none
      */
-    private void updateScore(int popped) {
-        poppedTotal += popped;
-        biggestCluster = Math.max(biggestCluster, popped);
-        score += calculateScore(popped);
+    public void showHint(Move move) {
+        if (move != null) {
+            board.select(move.getX(), move.getY());
+        }
     }
 
     /**
@@ -185,6 +235,6 @@ public class CrazyGameLogic {
      * @return the score
      */
     public int calculateScore(int popped) {
-        return (int) Math.round(Math.pow(popped, 2)) * 100;
+        return engine.calculateScore(popped);
     }
 }
@@ -115,9 +115,8 @@ public class Game extends StateBasedGame {
             app.setDisplayMode(Settings.SCREEN_WIDTH,
                 Settings.SCREEN_HEIGHT, Settings.is("fullscreen"));
             app.setShowFPS(false);
-            // Update game logic every 15-20ms.
-            app.setMinimumLogicUpdateInterval(15);
-            app.setMaximumLogicUpdateInterval(20);
+            // Update every frame, the physics takes fixed steps on its own.
+            app.setMinimumLogicUpdateInterval(1);
             // Don't pause if window loses focus.
             app.setAlwaysRender(true);
 
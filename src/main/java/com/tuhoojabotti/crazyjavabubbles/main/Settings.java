@@ -46,12 +46,20 @@ public class Settings {
     private static HashMap<String, Object> settings;
 
     /**
-     * Load settings from config.json.
+     * Load settings from config.json. Settings missing from it (added in
+     * newer versions) get their default values.
      */
     public static void loadSettings() {
         settings = new HashMap<>();
         File file = new File("config.json");
 
+        try {
+            parseSettings(IOUtils.toString(ResourceLoader.
+                getResourceAsStream("config.default.json")));
+        } catch (IOException e) {
+            Util.fatalError("Failed to load default settings!", Settings.class, e);
+        }
+
         String txt = loadSettingsFile(file);
 
         // Failed to load settings file, try to reset defaults.
@@ -141,6 +149,11 @@ public class Settings {
      */
     public static final float BUBBLE_WOBBLE = 0.04f;
 
+    /**
+     * Length of a physics step in milliseconds.
+     */
+    public static final int PHYSICS_STEP = 16;
+
     /**
      * Margin where to draw the {@link Board}.
      */
@@ -24,51 +24,168 @@
 package com.tuhoojabotti.crazyjavabubbles.renderer;
 
 import com.tuhoojabotti.crazyjavabubbles.logic.*;
-import java.util.HashSet;
-import java.util.Set;
-import org.newdawn.slick.GameContainer;
-import org.newdawn.slick.Graphics;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RenderTarget;
 import org.newdawn.slick.geom.Vector2f;
 
 /**
- * Renders the {@link Board}.
+ * Renders the {@link Board}. The physics of the bubbles runs on a thread of
+ * its own and follows the changes of the board as it tells about them.
  *
  * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
  */
-public class BoardRenderer {
+public class BoardRenderer implements BoardListener {
 
-    private final Set<BubbleRenderer> bubbleRenderers;
+    /**
+     * Physics of the bubbles on the board, only touched by the simulation.
+     */
+    private final BubblePhysics physics;
+    /**
+     * Runs the physics.
+     */
+    private final BubbleSimulation simulation;
+    /**
+     * Draws the bubbles.
+     */
+    private final BubbleRenderer bubbleRenderer;
+    /**
+     * Physics slot of the bubble in each cell, row by row. Only touched by
+     * the simulation.
+     */
+    private final int[] slots;
+    /**
+     * Width of the board.
+     */
+    private final int width;
+    /**
+     * The mouse position.
+     */
+    private final Vector2f mouse;
+    /**
+     * Where the board was last rendered.
+     */
+    private int boardX = Integer.MIN_VALUE, boardY;
+
+    /**
+     * Create new {@link Board} renderer and start its physics.
+     *
+     * @param board the game board to render
+     * @param target where to draw
+     * @param mouse the mouse position
+     */
+    public BoardRenderer(Board board, RenderTarget target, Vector2f mouse) {
+        this(board, new BubbleRenderer(target), mouse);
+    }
 
     /**
-     * Create new {@link Board} renderer.
+     * Create new {@link Board} renderer with a bubble renderer and start its
+     * physics.
      *
      * @param board the game board to render
-     * @param gfx the graphics controller
+     * @param bubbleRenderer draws the bubbles
      * @param mouse the mouse position
      */
-    public BoardRenderer(Board board, Graphics gfx, Vector2f mouse) {
+    BoardRenderer(Board board, BubbleRenderer bubbleRenderer, Vector2f mouse) {
         Bubble[][] bubbles = board.getBubbles();
-        bubbleRenderers = new HashSet<>();
+        width = board.getWidth();
+        slots = new int[width * board.getHeight()];
+        physics = new BubblePhysics(slots.length);
+        simulation = new BubbleSimulation(physics);
+        this.bubbleRenderer = bubbleRenderer;
+        this.mouse = mouse;
 
         for (int y = 0; y < bubbles.length; y++) {
             for (int x = 0; x < bubbles[0].length; x++) {
-                bubbleRenderers.add(
-                    new BubbleRenderer(bubbles[y][x], gfx, mouse));
+                if (bubbles[y][x] != null) {
+                    bubbleAdded(bubbles[y][x], x, y);
+                    if (bubbles[y][x].isSelected()) {
+                        select(x, y, true);
+                    }
+                }
             }
         }
+        board.addListener(this);
+        simulation.start();
+    }
+
+    @Override
+    public void bubblePopped(Bubble bubble, final int x, final int y) {
+        simulation.post(new Runnable() {
+            @Override
+            public void run() {
+                int slot = slots[y * width + x];
+                physics.remove(slot);
+                if (slot < physics.getCount()) {
+                    // The last bubble took the slot. Its cell is read from the
+                    // physics, the board may already have moved the bubble.
+                    slots[physics.getRow(slot) * width + physics.getColumn(slot)] = slot;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void bubbleMoved(Bubble bubble, final int fromX, final int fromY,
+        final int toX, final int toY) {
+        simulation.post(new Runnable() {
+            @Override
+            public void run() {
+                int slot = slots[fromY * width + fromX];
+                slots[toY * width + toX] = slot;
+                physics.moveTo(slot, toX, toY);
+            }
+        });
+    }
+
+    @Override
+    public void bubbleAdded(final Bubble bubble, final int x, final int y) {
+        simulation.post(new Runnable() {
+            @Override
+            public void run() {
+                slots[y * width + x] = physics.add(bubble, x, y);
+            }
+        });
+    }
+
+    @Override
+    public void selectionEntered(Bubble bubble) {
+        select((int) bubble.x, (int) bubble.y, true);
+    }
+
+    @Override
+    public void selectionLeft(Bubble bubble) {
+        select((int) bubble.x, (int) bubble.y, false);
+    }
+
+    /**
+     * Select or unselect the bubble in a cell.
+     *
+     * @param x column of the cell
+     * @param y row of the cell
+     * @param value is it selected
+     */
+    private void select(final int x, final int y, final boolean value) {
+        simulation.post(new Runnable() {
+            @Override
+            public void run() {
+                physics.setSelected(slots[y * width + x], value);
+            }
+        });
     }
 
     /**
      * Create a forceful explosion.
      *
-     * @param bubbles
+     * @param explosion the popped bubbles as an impulse field, not to be
+     * changed afterwards
      */
-    public void explode(Set<Bubble> bubbles) {
-        for (Bubble bubble : bubbles) {
-            for (BubbleRenderer bubbleRenderer : bubbleRenderers) {
-                bubbleRenderer.applyForce((Vector2f) bubble);
+    public void explode(final ImpulseField explosion) {
+        explosion.build();
+        simulation.post(new Runnable() {
+            @Override
+            public void run() {
+                physics.applyImpulse(explosion);
             }
-        }
+        });
     }
 
     /**
@@ -77,26 +194,54 @@ public class BoardRenderer {
      * @param x
      * @param y
      */
-    public void render(int x, int y) {
-        for (BubbleRenderer bubbleRenderer : bubbleRenderers) {
-            bubbleRenderer.render(x, y);
+    public void render(final int x, final int y) {
+        if (x != boardX || y != boardY) {
+            boardX = x;
+            boardY = y;
+            simulation.post(new Runnable() {
+                @Override
+                public void run() {
+                    physics.setBoardLocation(x, y);
+                }
+            });
         }
+        bubbleRenderer.render(simulation.getFrame());
     }
 
     /**
-     * Update bubble physics.
-     *
-     * @param gameContainer game container
-     * @param delta delta time
+     * Let the bubbles follow the mouse.
      */
-    public void update(GameContainer gameContainer, int delta) {
-        Set<BubbleRenderer> dead = new HashSet<>();
+    public void update() {
+        simulation.setMouse(mouse.x, mouse.y);
+    }
 
-        for (BubbleRenderer bubbleRenderer : bubbleRenderers) {
-            if (bubbleRenderer.update(gameContainer, delta)) {
-                dead.add(bubbleRenderer);
-            }
-        }
-        bubbleRenderers.removeAll(dead);
+    /**
+     * @return the simulation running the physics
+     */
+    BubbleSimulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * @return the physics of the bubbles
+     */
+    BubblePhysics getPhysics() {
+        return physics;
+    }
+
+    /**
+     * @param x column of a cell
+     * @param y row of a cell
+     * @return physics slot of the bubble in the cell
+     */
+    int getSlot(int x, int y) {
+        return slots[y * width + x];
+    }
+
+    /**
+     * Stop the physics.
+     */
+    public void stop() {
+        simulation.stop();
     }
 }
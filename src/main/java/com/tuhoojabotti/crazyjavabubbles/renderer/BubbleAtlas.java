@@ -0,0 +1,231 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Image;
+import org.newdawn.slick.ImageBuffer;
+
+/**
+ * Every disc the bubbles are drawn with, pre-rendered into one texture: a
+ * bubble of each palette colour, and white discs of the hole sizes and of
+ * the bubble size to be tinted with any colour. The sprites sit in a grid
+ * of square cells with a pixel of empty space around each, so that linear
+ * filtering does not bleed the neighbours in. The pixels are made without a
+ * display, only {@link #createImage()} needs one.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BubbleAtlas {
+
+    /**
+     * Number of sprites in a row.
+     */
+    private static final int COLUMNS = 8;
+    /**
+     * Samples per pixel per axis when anti-aliasing the edges.
+     */
+    private static final int SAMPLES = 4;
+
+    /**
+     * The palette colours.
+     */
+    private final Color[] palette;
+    /**
+     * Diameter of each sprite.
+     */
+    private final int[] sizes;
+    /**
+     * Colour of each sprite.
+     */
+    private final Color[] colors;
+    /**
+     * Side of a cell.
+     */
+    private final int cell;
+
+    /**
+     * Lay out the sprites.
+     *
+     * @param diameter diameter of a bubble
+     * @param holes diameters of the holes, from small to big
+     * @param palette the colours of the bubbles
+     */
+    public BubbleAtlas(int diameter, int[] holes, Color[] palette) {
+        this.palette = palette.clone();
+        cell = diameter + 2;
+        sizes = new int[palette.length + holes.length + 1];
+        colors = new Color[sizes.length];
+        for (int i = 0; i < palette.length; i++) {
+            sizes[i] = diameter;
+            colors[i] = palette[i];
+        }
+        for (int i = 0; i < holes.length; i++) {
+            if (holes[i] > diameter || (i > 0 && holes[i] <= holes[i - 1])) {
+                throw new IllegalArgumentException("Bad hole sizes");
+            }
+            sizes[palette.length + i] = holes[i];
+            colors[palette.length + i] = Color.white;
+        }
+        sizes[sizes.length - 1] = diameter;
+        colors[sizes.length - 1] = Color.white;
+    }
+
+    /**
+     * @return number of sprites
+     */
+    public int getSpriteCount() {
+        return sizes.length;
+    }
+
+    /**
+     * @return width of the atlas
+     */
+    public int getWidth() {
+        return Math.min(sizes.length, COLUMNS) * cell;
+    }
+
+    /**
+     * @return height of the atlas
+     */
+    public int getHeight() {
+        return (sizes.length + COLUMNS - 1) / COLUMNS * cell;
+    }
+
+    /**
+     * @param sprite index of a sprite
+     * @return x of the sprite's top left corner
+     */
+    public int getSpriteX(int sprite) {
+        return sprite % COLUMNS * cell + 1;
+    }
+
+    /**
+     * @param sprite index of a sprite
+     * @return y of the sprite's top left corner
+     */
+    public int getSpriteY(int sprite) {
+        return sprite / COLUMNS * cell + 1;
+    }
+
+    /**
+     * @param sprite index of a sprite
+     * @return diameter of the sprite
+     */
+    public int getSpriteSize(int sprite) {
+        return sizes[sprite];
+    }
+
+    /**
+     * Find the bubble sprite of a colour.
+     *
+     * @param color colour of the bubble
+     * @return the sprite of the colour, or the white one to tint
+     */
+    public int getBubbleSprite(Color color) {
+        for (int i = 0; i < palette.length; i++) {
+            if (palette[i] == color) {
+                return i;
+            }
+        }
+        return sizes.length - 1;
+    }
+
+    /**
+     * @param sprite index of a sprite
+     * @return does the sprite need to be tinted to the bubble's colour
+     */
+    public boolean isTinted(int sprite) {
+        return sprite >= palette.length;
+    }
+
+    /**
+     * Find the white disc to draw a hole with, the smallest one at least as
+     * big so it is only ever scaled down.
+     *
+     * @param diameter diameter of the hole
+     * @return the sprite
+     */
+    public int getHoleSprite(float diameter) {
+        for (int i = palette.length; i < sizes.length - 1; i++) {
+            if (sizes[i] >= diameter) {
+                return i;
+            }
+        }
+        return sizes.length - 1;
+    }
+
+    /**
+     * Draw the sprites.
+     *
+     * @return the pixels
+     */
+    public ImageBuffer rasterize() {
+        ImageBuffer pixels = new ImageBuffer(getWidth(), getHeight());
+        for (int i = 0; i < sizes.length; i++) {
+            drawDisc(pixels, getSpriteX(i), getSpriteY(i), sizes[i], colors[i]);
+        }
+        return pixels;
+    }
+
+    /**
+     * Draw a disc with smooth edges. The pixels around it get its colour
+     * too, only transparent, so that filtering does not darken the edge.
+     *
+     * @param pixels where to draw
+     * @param left x of the top left corner
+     * @param top y of the top left corner
+     * @param size diameter of the disc
+     * @param color colour of the disc
+     */
+    private void drawDisc(ImageBuffer pixels, int left, int top, int size, Color color) {
+        float radius = size / 2f;
+        for (int y = -1; y <= size; y++) {
+            for (int x = -1; x <= size; x++) {
+                int inside = 0;
+                for (int sy = 0; sy < SAMPLES; sy++) {
+                    for (int sx = 0; sx < SAMPLES; sx++) {
+                        float dx = x + (sx + 0.5f) / SAMPLES - radius,
+                            dy = y + (sy + 0.5f) / SAMPLES - radius;
+                        if (dx * dx + dy * dy <= radius * radius) {
+                            inside++;
+                        }
+                    }
+                }
+                pixels.setRGBA(left + x, top + y, color.getRed(),
+                    color.getGreen(), color.getBlue(),
+                    color.getAlpha() * inside / (SAMPLES * SAMPLES));
+            }
+        }
+    }
+
+    /**
+     * Upload the sprites into a texture. Needs a display.
+     *
+     * @return the atlas
+     */
+    public Image createImage() {
+        return rasterize().getImage(Image.FILTER_LINEAR);
+    }
+}
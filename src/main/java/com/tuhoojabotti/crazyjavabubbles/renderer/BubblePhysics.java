@@ -0,0 +1,411 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import com.tuhoojabotti.crazyjavabubbles.logic.Bubble;
+import com.tuhoojabotti.crazyjavabubbles.main.Settings;
+import static com.tuhoojabotti.crazyjavabubbles.main.Util.curveValue;
+import java.util.Arrays;
+
+/**
+ * The wobbly physics of the bubbles on screen. Every bubble has a slot and
+ * its state is stored in flat arrays by slot, so updating all of them is one
+ * loop over the arrays. A removed bubble is replaced by the last one, so the
+ * slots stay packed. The bubbles move in fixed steps of
+ * {@link Settings#PHYSICS_STEP}, so the wobble does not depend on the frame
+ * rate, and a {@link BubbleSnapshot} of the last two steps is what gets
+ * drawn. Needs no display.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BubblePhysics {
+
+    /**
+     * Radius of the Bubble
+     */
+    private final int radius = Settings.BUBBLE_RADIUS;
+    /**
+     * Margin of the board
+     */
+    private final int margin = Settings.BOARD_MARGIN;
+
+    /**
+     * Bubble in each slot.
+     */
+    private Bubble[] bubbles;
+    /**
+     * Location of each bubble, the top left corner.
+     */
+    private float[] x, y;
+    /**
+     * Location of each bubble before the last step.
+     */
+    private float[] lastX, lastY;
+    /**
+     * Velocity of each bubble.
+     */
+    private float[] vx, vy;
+    /**
+     * Target cell of each bubble.
+     */
+    private int[] column, row;
+    /**
+     * Location and radius of the (black) hole on each bubble.
+     */
+    private float[] holeX, holeY, holeRadius;
+    /**
+     * Location and radius of the hole before the last step.
+     */
+    private float[] lastHoleX, lastHoleY, lastHoleRadius;
+    /**
+     * Is the bubble selected.
+     */
+    private boolean[] selected;
+    /**
+     * Push of an explosion on one bubble.
+     */
+    private final float[] push = new float[2];
+    /**
+     * Number of bubbles.
+     */
+    private int count;
+    /**
+     * Location of the board on screen.
+     */
+    private float boardX, boardY;
+    /**
+     * Splits frames into steps.
+     */
+    private final FixedStep timer = new FixedStep(Settings.PHYSICS_STEP, 8);
+    /**
+     * Time stepped so far, for the pulse of the selected bubbles.
+     */
+    private long time;
+
+    /**
+     * Create the physics.
+     *
+     * @param capacity how many bubbles to make room for at first
+     */
+    public BubblePhysics(int capacity) {
+        capacity = Math.max(1, capacity);
+        bubbles = new Bubble[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        lastX = new float[capacity];
+        lastY = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        column = new int[capacity];
+        row = new int[capacity];
+        holeX = new float[capacity];
+        holeY = new float[capacity];
+        holeRadius = new float[capacity];
+        lastHoleX = new float[capacity];
+        lastHoleY = new float[capacity];
+        lastHoleRadius = new float[capacity];
+        selected = new boolean[capacity];
+    }
+
+    /**
+     * Add a bubble. It starts above its column and falls in.
+     *
+     * @param bubble the bubble, at its cell
+     * @return slot of the bubble
+     */
+    public int add(Bubble bubble) {
+        int slot = add(bubble, (int) bubble.x, (int) bubble.y);
+        selected[slot] = bubble.isSelected();
+        return slot;
+    }
+
+    /**
+     * Add an unselected bubble to a cell. The bubble itself is not read, so
+     * the board may move it on another thread.
+     *
+     * @param bubble the bubble
+     * @param cellX column of the cell
+     * @param cellY row of the cell
+     * @return slot of the bubble
+     */
+    public int add(Bubble bubble, int cellX, int cellY) {
+        if (count == bubbles.length) {
+            grow(count * 2);
+        }
+        int slot = count++;
+        bubbles[slot] = bubble;
+        column[slot] = cellX;
+        row[slot] = cellY;
+        x[slot] = margin + cellX * radius + 150;
+        y[slot] = -10;
+        vx[slot] = 0;
+        vy[slot] = 0;
+        holeRadius[slot] = radius / 3;
+        holeX[slot] = x[slot];
+        holeY[slot] = y[slot];
+        lastX[slot] = x[slot];
+        lastY[slot] = y[slot];
+        lastHoleX[slot] = holeX[slot];
+        lastHoleY[slot] = holeY[slot];
+        lastHoleRadius[slot] = holeRadius[slot];
+        selected[slot] = false;
+        return slot;
+    }
+
+    /**
+     * Remove a bubble. The last bubble takes its slot.
+     *
+     * @param slot slot of the bubble
+     */
+    public void remove(int slot) {
+        int last = --count;
+        bubbles[slot] = bubbles[last];
+        x[slot] = x[last];
+        y[slot] = y[last];
+        lastX[slot] = lastX[last];
+        lastY[slot] = lastY[last];
+        vx[slot] = vx[last];
+        vy[slot] = vy[last];
+        column[slot] = column[last];
+        row[slot] = row[last];
+        holeX[slot] = holeX[last];
+        holeY[slot] = holeY[last];
+        holeRadius[slot] = holeRadius[last];
+        lastHoleX[slot] = lastHoleX[last];
+        lastHoleY[slot] = lastHoleY[last];
+        lastHoleRadius[slot] = lastHoleRadius[last];
+        selected[slot] = selected[last];
+        bubbles[last] = null;
+    }
+
+    /**
+     * Make room for more bubbles.
+     *
+     * @param capacity the new size of the arrays
+     */
+    private void grow(int capacity) {
+        bubbles = Arrays.copyOf(bubbles, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        lastX = Arrays.copyOf(lastX, capacity);
+        lastY = Arrays.copyOf(lastY, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        column = Arrays.copyOf(column, capacity);
+        row = Arrays.copyOf(row, capacity);
+        holeX = Arrays.copyOf(holeX, capacity);
+        holeY = Arrays.copyOf(holeY, capacity);
+        holeRadius = Arrays.copyOf(holeRadius, capacity);
+        lastHoleX = Arrays.copyOf(lastHoleX, capacity);
+        lastHoleY = Arrays.copyOf(lastHoleY, capacity);
+        lastHoleRadius = Arrays.copyOf(lastHoleRadius, capacity);
+        selected = Arrays.copyOf(selected, capacity);
+    }
+
+    /**
+     * Make a bubble head to a new cell.
+     *
+     * @param slot slot of the bubble
+     * @param x column of the cell
+     * @param y row of the cell
+     */
+    public void moveTo(int slot, int x, int y) {
+        column[slot] = x;
+        row[slot] = y;
+    }
+
+    public void setSelected(int slot, boolean value) {
+        selected[slot] = value;
+    }
+
+    /**
+     * Set where the board is on screen.
+     *
+     * @param x board's x-coordinate
+     * @param y board's y-coordinate
+     */
+    public void setBoardLocation(float x, float y) {
+        boardX = x;
+        boardY = y;
+    }
+
+    /**
+     * Push every bubble away from an explosion.
+     *
+     * @param field the explosion, in screen coordinates
+     */
+    public void applyImpulse(ImpulseField field) {
+        float center = radius / 2;
+        for (int i = 0; i < count; i++) {
+            field.push(x[i] + center, y[i] + center, 10, push);
+            vx[i] += 750 * push[0];
+            vy[i] += 650 * push[1];
+        }
+    }
+
+    /**
+     * Let time pass, taking as many fixed steps as fit in it.
+     *
+     * @param delta delta time
+     * @param mouseX x of the mouse cursor
+     * @param mouseY y of the mouse cursor
+     */
+    public void update(int delta, float mouseX, float mouseY) {
+        for (int steps = timer.advance(delta); steps > 0; steps--) {
+            if (steps == 1) {
+                System.arraycopy(x, 0, lastX, 0, count);
+                System.arraycopy(y, 0, lastY, 0, count);
+                System.arraycopy(holeX, 0, lastHoleX, 0, count);
+                System.arraycopy(holeY, 0, lastHoleY, 0, count);
+                System.arraycopy(holeRadius, 0, lastHoleRadius, 0, count);
+            }
+            step(mouseX, mouseY);
+        }
+    }
+
+    /**
+     * Move every bubble towards its cell and the mouse, and update the holes.
+     *
+     * @param mouseX x of the mouse cursor
+     * @param mouseY y of the mouse cursor
+     */
+    private void step(float mouseX, float mouseY) {
+        time += Settings.PHYSICS_STEP;
+        float center = radius / 2, step = Settings.PHYSICS_STEP * 0.04f;
+        for (int i = 0; i < count; i++) {
+            // Direction to the mouse from the center.
+            float dx = mouseX - x[i] - center,
+                dy = mouseY - y[i] - center,
+                length = (float) Math.sqrt(dx * dx + dy * dy),
+                cos = length > 0 ? dx / length : 1,
+                sin = length > 0 ? dy / length : 0;
+
+            // Update velocity towards real position + towards mouse cursor.
+            float smooth = Settings.BUBBLE_WOBBLE + (row[i] + 5) / 200f;
+            vx[i] = (curveValue(boardX + column[i] * radius - x[i], vx[i], smooth)
+                + 0.35f * cos) * step;
+            vy[i] = (curveValue(boardY + row[i] * radius - y[i], vy[i], smooth)
+                + 0.35f * sin) * step;
+            x[i] += vx[i];
+            y[i] += vy[i];
+
+            // Set hole size.
+            float mx = mouseX - x[i],
+                my = mouseY - y[i],
+                mouseDistance = (float) Math.sqrt(mx * mx + my * my),
+                hole = Math.max(8, radius / 3f - 10 / mouseDistance * 50),
+                holeSize = 3.5f;
+            if (selected[i]) {
+                hole += (float) Math.sin(time / 80.0 + column[i] + row[i]) * 2.5f;
+                holeSize = 0;
+            }
+
+            // Update the hole position.
+            float offset = center - hole;
+            holeRadius[i] = hole;
+            holeX[i] = x[i] + cos * holeSize + offset;
+            holeY[i] = y[i] + sin * holeSize + offset;
+        }
+    }
+
+    /**
+     * @return number of bubbles
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @param slot slot of a bubble
+     * @return the bubble
+     */
+    public Bubble getBubble(int slot) {
+        return bubbles[slot];
+    }
+
+    /**
+     * @param slot slot of a bubble
+     * @return column of the cell the bubble is heading to
+     */
+    public int getColumn(int slot) {
+        return column[slot];
+    }
+
+    /**
+     * @param slot slot of a bubble
+     * @return row of the cell the bubble is heading to
+     */
+    public int getRow(int slot) {
+        return row[slot];
+    }
+
+    public float getX(int slot) {
+        return x[slot];
+    }
+
+    public float getY(int slot) {
+        return y[slot];
+    }
+
+    public float getHoleX(int slot) {
+        return holeX[slot];
+    }
+
+    public float getHoleY(int slot) {
+        return holeY[slot];
+    }
+
+    public float getHoleRadius(int slot) {
+        return holeRadius[slot];
+    }
+
+    /**
+     * Copy the bubbles before and after the last step to a snapshot.
+     *
+     * @param frame where to copy them
+     * @param time when the step was taken, from {@link System#nanoTime()}
+     */
+    public void snapshot(BubbleSnapshot frame, long time) {
+        frame.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            frame.colors[i] = bubbles[i].getColor();
+        }
+        System.arraycopy(lastX, 0, frame.lastX, 0, count);
+        System.arraycopy(lastY, 0, frame.lastY, 0, count);
+        System.arraycopy(lastHoleX, 0, frame.lastHoleX, 0, count);
+        System.arraycopy(lastHoleY, 0, frame.lastHoleY, 0, count);
+        System.arraycopy(lastHoleRadius, 0, frame.lastHoleRadius, 0, count);
+        System.arraycopy(x, 0, frame.x, 0, count);
+        System.arraycopy(y, 0, frame.y, 0, count);
+        System.arraycopy(holeX, 0, frame.holeX, 0, count);
+        System.arraycopy(holeY, 0, frame.holeY, 0, count);
+        System.arraycopy(holeRadius, 0, frame.holeRadius, 0, count);
+        frame.count = count;
+        frame.time = time;
+    }
+
+    public boolean isSelected(int slot) {
+        return selected[slot];
+    }
+}
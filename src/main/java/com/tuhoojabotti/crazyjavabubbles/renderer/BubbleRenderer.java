@@ -23,187 +23,168 @@
  */
 package com.tuhoojabotti.crazyjavabubbles.renderer;
 
-import com.tuhoojabotti.crazyjavabubbles.main.Settings;
-import static com.tuhoojabotti.crazyjavabubbles.main.Util.curveValue;
 import com.tuhoojabotti.crazyjavabubbles.logic.Bubble;
+import com.tuhoojabotti.crazyjavabubbles.main.Settings;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RenderTarget;
 import org.newdawn.slick.Color;
-import org.newdawn.slick.GameContainer;
-import org.newdawn.slick.Graphics;
-import org.newdawn.slick.geom.Circle;
-import org.newdawn.slick.geom.Vector2f;
+import org.newdawn.slick.Image;
 
 /**
- * Renders the {@link Bubble} with cool physics.
+ * Renders the bubbles of a {@link BubbleSnapshot}. The bubbles are drawn
+ * from the sprites of a {@link BubbleAtlas}, all in one batch, or as
+ * polygon circles if sprites are turned off.
  *
  * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
  */
 public class BubbleRenderer {
 
     /**
-     * Graphics object
-     */
-    private final Graphics graphics;
-    /**
-     * Radius of the Bubble
+     * Diameters of the hole sprites.
      */
-    private final int radius = Settings.BUBBLE_RADIUS;
+    private static final int[] HOLES = {8, 10, 12, 14, 16, 18, 20, 22, 24};
     /**
-     * Margin of the board
+     * The sprites of the bubbles.
      */
-    private final int margin = Settings.BOARD_MARGIN;
+    public static final BubbleAtlas ATLAS = new BubbleAtlas(Settings.BUBBLE_RADIUS,
+        HOLES, Bubble.PALETTE);
     /**
-     * Position of the mouse cursor
+     * The texture of {@link #ATLAS}, shared by all renderers.
      */
-    private final Vector2f mousePosition;
+    private static Image atlasImage;
 
     /**
-     * Bubble of this renderer
-     */
-    private Bubble bubble;
-    /**
-     * Velocity of the Bubble
+     * Where to draw.
      */
-    private Vector2f velocity;
+    private final RenderTarget target;
     /**
-     * Target location of the Bubble
+     * Radius of the Bubble
      */
-    private Vector2f target;
-
+    private final int radius = Settings.BUBBLE_RADIUS;
     /**
-     * The circle shape
+     * Number of segments in the circles.
      */
-    private Circle outCircle;
+    private final int quality;
     /**
-     * The (black) hole on the Bubble
+     * Texture of the sprites, null to draw polygons.
      */
-    private Circle inCircle;
+    private final Image sprites;
 
     /**
-     * Create a {@link Bubble} renderer with mouse interaction.
+     * Create a renderer as the settings say.
      *
-     * @param bubble the bubble to render
-     * @param gfx graphics controller
-     * @param mouse mouse position
+     * @param target where to draw
      */
-    public BubbleRenderer(Bubble bubble, Graphics gfx, Vector2f mouse) {
-        this.bubble = bubble;
-        this.graphics = gfx;
-        mousePosition = mouse;
-
-        velocity = new Vector2f();
-        target = new Vector2f();
-
-        outCircle = new Circle(0, 0, radius / 2, (int) Settings.get("ball_quality"));
-        inCircle = new Circle(0, 0, radius / 3, (int) Settings.get("ball_quality") - 2);
-
-        outCircle.setLocation(margin + bubble.x * radius + 150, -10);
+    public BubbleRenderer(RenderTarget target) {
+        this(target, (int) Settings.get("ball_quality"),
+            Settings.is("ball_sprites") ? getAtlasImage() : null);
     }
 
     /**
-     * Create a {@link Bubble} renderer without mouse interaction.
+     * Create a renderer that draws polygons.
      *
-     * @param bubble the bubble to render
-     * @param gfx graphics controller
+     * @param target where to draw
+     * @param quality number of segments in the circles
      */
-    public BubbleRenderer(Bubble bubble, Graphics gfx) {
-        this(bubble, gfx, new Vector2f(-100000, -100000));
+    public BubbleRenderer(RenderTarget target, int quality) {
+        this(target, quality, null);
     }
 
     /**
-     * Move the Bubble if there's an explosion.
+     * Create a renderer.
      *
-     * @param bubble the origin of the explosion
-     */
-    public void applyForce(Vector2f bubble) {
-        Vector2f point = new Vector2f(margin + bubble.x * radius,
-            margin + bubble.y * radius);
-        double angle = Math.atan2(point.y - outCircle.getCenterY(),
-            point.x - outCircle.getCenterX());
-        float distance = Math.max(10, point.distance(outCircle.getLocation()));
-
-        velocity.x -= 750 / distance * (float) Math.cos(angle);
-        velocity.y -= 650 / distance * (float) Math.sin(angle);
+     * @param target where to draw
+     * @param quality number of segments in the circles
+     * @param sprites texture of {@link #ATLAS}, null to draw polygons
+     */
+    public BubbleRenderer(RenderTarget target, int quality, Image sprites) {
+        this.target = target;
+        this.quality = quality;
+        this.sprites = sprites;
     }
 
     /**
-     * Render a {@link Bubble}.
+     * Upload the atlas the first time it is needed. Needs a display.
      *
-     * @param x board's x-coordinate
-     * @param y board's y-coordinate
+     * @return texture of {@link #ATLAS}
      */
-    public void render(int x, int y) {
-        target.set(x + bubble.x * radius, y + bubble.y * radius);
-
-        // Outer circle
-        graphics.setColor(bubble.getColor());
-        graphics.fill(outCircle);
-        // Inner circle
-        graphics.setColor(Color.black);
-        graphics.fill(inCircle);
+    private static synchronized Image getAtlasImage() {
+        if (atlasImage == null) {
+            atlasImage = ATLAS.createImage();
+        }
+        return atlasImage;
     }
 
     /**
-     * Update the renderer.
+     * Render the bubbles, between the two steps of the snapshot as far as
+     * time has passed since it. Nothing is allocated here, it is called
+     * every frame.
      *
-     * @param gameContainer game container
-     * @param delta delta time
-     * @return is bubble popped
-     */
-    public boolean update(GameContainer gameContainer, int delta) {
-        double mouseAngle = Math.atan2(
-            mousePosition.y - outCircle.getCenterY(),
-            mousePosition.x - outCircle.getCenterX());
-
-        updatePhysics(mouseAngle, delta);
-        updateHole(mouseAngle, gameContainer.getTime());
-
-        return bubble.isPopped();
+     * @param frame the bubbles
+     */
+    public void render(BubbleSnapshot frame) {
+        float alpha = frame.getAlpha(System.nanoTime());
+        if (sprites != null) {
+            renderSprites(frame, alpha);
+        } else {
+            renderPolygons(frame, alpha);
+        }
     }
 
     /**
-     * Move the Bubble according to it's physics.
+     * Render the bubbles as quads of the atlas, two per bubble.
      *
-     * @param mouseAngle where is the mouse
-     * @param delta delta time
-     */
-    private void updatePhysics(double mouseAngle, int delta) {
-        float smooth = Settings.BUBBLE_WOBBLE + (bubble.y + 5) / 200f;
-
-        // Update velocity towards real position + towards mouse cursor.
-        velocity.x = curveValue(target.x - outCircle.getX(), velocity.x, smooth)
-            + 0.35f * (float) Math.cos(mouseAngle);
-        velocity.y = curveValue(target.y - outCircle.getY(), velocity.y, smooth)
-            + 0.35f * (float) Math.sin(mouseAngle);
-
-        // Move Bubble according to it's velocity.
-        outCircle.setLocation(outCircle.getLocation()
-            .add(velocity.scale(delta * 0.04f)));
+     * @param frame the bubbles
+     * @param alpha how far to the next step
+     */
+    private void renderSprites(BubbleSnapshot frame, float alpha) {
+        target.beginSprites(sprites);
+        for (int i = 0; i < frame.getCount(); i++) {
+            Color color = frame.getColor(i);
+            int bubble = ATLAS.getBubbleSprite(color);
+            drawSprite(bubble, frame.getX(i, alpha), frame.getY(i, alpha),
+                radius, ATLAS.isTinted(bubble) ? color : Color.white);
+
+            float hole = frame.getHoleRadius(i, alpha) * 2;
+            drawSprite(ATLAS.getHoleSprite(hole), frame.getHoleX(i, alpha),
+                frame.getHoleY(i, alpha), hole, Color.black);
+        }
+        target.endSprites();
     }
 
     /**
-     * Update the black hole on the Bubble.
+     * Draw a sprite scaled to a size.
      *
-     * @param mouseAngle where is the mouse
-     * @param time delta time
-     */
-    private void updateHole(double mouseAngle, long time) {
-        float mouseDistance = mousePosition.distance(outCircle.getLocation());
-
-        // Set hole size.
-        inCircle.setRadius((float) (Math.max(8, radius / 3f - 10
-            / mouseDistance * 50)));
+     * @param sprite index of the sprite
+     * @param x x of the top left corner
+     * @param y y of the top left corner
+     * @param size diameter to draw it at
+     * @param filter colour to tint it with
+     */
+    private void drawSprite(int sprite, float x, float y, float size, Color filter) {
+        int left = ATLAS.getSpriteX(sprite),
+            top = ATLAS.getSpriteY(sprite),
+            side = ATLAS.getSpriteSize(sprite);
+        target.drawSprite(x, y, x + size, y + size,
+            left, top, left + side, top + side, filter);
+    }
 
-        if (bubble.isSelected()) {
-            inCircle.setRadius(inCircle.getRadius() + (float) Math.sin((time / 80.0)
-                + (double) (bubble.x + bubble.y)) * 2.5f);
+    /**
+     * Render the bubbles as polygon circles.
+     *
+     * @param frame the bubbles
+     * @param alpha how far to the next step
+     */
+    private void renderPolygons(BubbleSnapshot frame, float alpha) {
+        for (int i = 0; i < frame.getCount(); i++) {
+            // Outer circle
+            target.setColor(frame.getColor(i));
+            target.fillOval(frame.getX(i, alpha), frame.getY(i, alpha),
+                radius, radius, quality);
+            // Inner circle
+            float hole = frame.getHoleRadius(i, alpha) * 2;
+            target.setColor(Color.black);
+            target.fillOval(frame.getHoleX(i, alpha), frame.getHoleY(i, alpha),
+                hole, hole, quality - 2);
         }
-
-        // Update the hole position.
-        float holeSize = bubble.isSelected() ? 0 : 3.5f,
-            offset = radius / 2 - inCircle.getRadius();
-        inCircle.setLocation(
-            outCircle.getLocation()
-            .add(new Vector2f(((float) Math.cos(mouseAngle) * holeSize) + offset,
-                    ((float) Math.sin(mouseAngle) * holeSize) + offset)));
     }
 }
@@ -0,0 +1,174 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import com.tuhoojabotti.crazyjavabubbles.main.Settings;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Runs a {@link BubblePhysics} on a thread of its own. The physics belongs
+ * to that thread: changes to it are posted as commands and run before the
+ * next step, and after every step a {@link BubbleSnapshot} is published
+ * through a {@link TripleBuffer} for the render thread to draw. Before
+ * {@link #start()} and after {@link #stop()} the physics can be stepped
+ * on the caller's thread with {@link #step()}.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BubbleSimulation implements Runnable {
+
+    /**
+     * Length of a physics step in nanoseconds.
+     */
+    private static final long STEP = Settings.PHYSICS_STEP * 1000000L;
+    /**
+     * The simulation skips ahead when it falls this many steps behind.
+     */
+    private static final int MAX_LAG = 8;
+
+    /**
+     * The physics.
+     */
+    private final BubblePhysics physics;
+    /**
+     * Changes to the physics, waiting for the next step.
+     */
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    /**
+     * The snapshots.
+     */
+    private final TripleBuffer<BubbleSnapshot> frames = new TripleBuffer<>(
+        new BubbleSnapshot(), new BubbleSnapshot(), new BubbleSnapshot());
+    /**
+     * The mouse position.
+     */
+    private volatile float mouseX, mouseY;
+    /**
+     * The thread running the simulation, if any.
+     */
+    private Thread thread;
+    /**
+     * Should the thread keep running.
+     */
+    private volatile boolean running;
+
+    /**
+     * Create a simulation.
+     *
+     * @param physics the physics to run
+     */
+    public BubbleSimulation(BubblePhysics physics) {
+        this.physics = physics;
+    }
+
+    /**
+     * Run a command on the physics before the next step.
+     *
+     * @param command the command
+     */
+    public void post(Runnable command) {
+        commands.add(command);
+    }
+
+    /**
+     * Move the mouse the bubbles follow.
+     *
+     * @param x x of the mouse cursor
+     * @param y y of the mouse cursor
+     */
+    public void setMouse(float x, float y) {
+        mouseX = x;
+        mouseY = y;
+    }
+
+    /**
+     * @return the latest snapshot of the bubbles
+     */
+    public BubbleSnapshot getFrame() {
+        return frames.getFront();
+    }
+
+    /**
+     * Run the posted commands, take a step and publish a snapshot of it.
+     */
+    public void step() {
+        for (Runnable command = commands.poll(); command != null; command = commands.poll()) {
+            command.run();
+        }
+        physics.update(Settings.PHYSICS_STEP, mouseX, mouseY);
+        physics.snapshot(frames.getBack(), System.nanoTime());
+        frames.publish();
+    }
+
+    /**
+     * Start stepping on a thread of its own.
+     */
+    public void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "BubbleSimulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the thread and wait for it to finish.
+     */
+    public void stop() {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (running) {
+            step();
+            next += STEP;
+            long wait = next - System.nanoTime();
+            if (wait < -MAX_LAG * STEP) {
+                // Too far behind to catch up, let the time go.
+                next = System.nanoTime();
+            } else if (wait > 0) {
+                try {
+                    Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import com.tuhoojabotti.crazyjavabubbles.main.Settings;
+import java.util.Arrays;
+import org.newdawn.slick.Color;
+
+/**
+ * What the bubbles looked like after one physics step: the locations before
+ * and after the step, and when it was taken. The renderer draws it moving
+ * from the one to the other while waiting for the next step.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BubbleSnapshot {
+
+    /**
+     * Length of a physics step in nanoseconds.
+     */
+    private static final long STEP = Settings.PHYSICS_STEP * 1000000L;
+
+    /**
+     * Colour of each bubble.
+     */
+    Color[] colors = new Color[0];
+    /**
+     * Locations of the bubbles and holes before the step.
+     */
+    float[] lastX = {}, lastY = {}, lastHoleX = {}, lastHoleY = {},
+        lastHoleRadius = {};
+    /**
+     * Locations of the bubbles and holes after the step.
+     */
+    float[] x = {}, y = {}, holeX = {}, holeY = {}, holeRadius = {};
+    /**
+     * Number of bubbles.
+     */
+    int count;
+    /**
+     * When the step was taken, from {@link System#nanoTime()}.
+     */
+    long time;
+
+    /**
+     * Make room for the bubbles.
+     *
+     * @param capacity number of bubbles
+     */
+    void ensureCapacity(int capacity) {
+        if (capacity <= colors.length) {
+            return;
+        }
+        capacity = Math.max(capacity, colors.length * 2);
+        colors = Arrays.copyOf(colors, capacity);
+        lastX = new float[capacity];
+        lastY = new float[capacity];
+        lastHoleX = new float[capacity];
+        lastHoleY = new float[capacity];
+        lastHoleRadius = new float[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        holeX = new float[capacity];
+        holeY = new float[capacity];
+        holeRadius = new float[capacity];
+    }
+
+    /**
+     * @param now the time now, from {@link System#nanoTime()}
+     * @return how far to the next step we are, from 0 to 1
+     */
+    public float getAlpha(long now) {
+        return Math.max(0, Math.min(1, (now - time) / (float) STEP));
+    }
+
+    /**
+     * @return number of bubbles
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @param i index of a bubble
+     * @return colour of the bubble
+     */
+    public Color getColor(int i) {
+        return colors[i];
+    }
+
+    /**
+     * @param i index of a bubble
+     * @param alpha how far to the next step
+     * @return x of the bubble
+     */
+    public float getX(int i, float alpha) {
+        return lastX[i] + (x[i] - lastX[i]) * alpha;
+    }
+
+    /**
+     * @param i index of a bubble
+     * @param alpha how far to the next step
+     * @return y of the bubble
+     */
+    public float getY(int i, float alpha) {
+        return lastY[i] + (y[i] - lastY[i]) * alpha;
+    }
+
+    /**
+     * @param i index of a bubble
+     * @param alpha how far to the next step
+     * @return x of the hole
+     */
+    public float getHoleX(int i, float alpha) {
+        return lastHoleX[i] + (holeX[i] - lastHoleX[i]) * alpha;
+    }
+
+    /**
+     * @param i index of a bubble
+     * @param alpha how far to the next step
+     * @return y of the hole
+     */
+    public float getHoleY(int i, float alpha) {
+        return lastHoleY[i] + (holeY[i] - lastHoleY[i]) * alpha;
+    }
+
+    /**
+     * @param i index of a bubble
+     * @param alpha how far to the next step
+     * @return radius of the hole
+     */
+    public float getHoleRadius(int i, float alpha) {
+        return lastHoleRadius[i] + (holeRadius[i] - lastHoleRadius[i]) * alpha;
+    }
+}
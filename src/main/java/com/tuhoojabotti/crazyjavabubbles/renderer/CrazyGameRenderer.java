@@ -23,11 +23,13 @@
  */
 package com.tuhoojabotti.crazyjavabubbles.renderer;
 
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RenderTarget;
 import com.tuhoojabotti.crazyjavabubbles.renderer.effect.BubbleEffectRenderer;
 import com.tuhoojabotti.crazyjavabubbles.renderer.text.TextRenderer;
 import com.tuhoojabotti.crazyjavabubbles.main.Settings;
 import static com.tuhoojabotti.crazyjavabubbles.main.Util.fatalError;
 import com.tuhoojabotti.crazyjavabubbles.renderer.text.BeatTextRenderer;
+import com.tuhoojabotti.crazyjavabubbles.renderer.text.HudLine;
 import com.tuhoojabotti.crazyjavabubbles.logic.Bubble;
 import com.tuhoojabotti.crazyjavabubbles.logic.CrazyGameLogic;
 import com.tuhoojabotti.crazyjavabubbles.renderer.text.TextParticleRenderer;
@@ -35,7 +37,6 @@ import com.tuhoojabotti.crazyjavabubbles.states.CrazyGame;
 import java.util.Set;
 import org.newdawn.slick.Color;
 import org.newdawn.slick.GameContainer;
-import org.newdawn.slick.Graphics;
 import org.newdawn.slick.SlickException;
 import org.newdawn.slick.geom.Vector2f;
 
@@ -47,7 +48,7 @@ import org.newdawn.slick.geom.Vector2f;
 public class CrazyGameRenderer {
 
     private final CrazyGameLogic game;
-    private final Graphics graphics;
+    private final RenderTarget target;
     private final BoardRenderer boardRenderer;
     private TextRenderer text;
     private BeatTextRenderer scoreText;
@@ -60,29 +61,37 @@ public class CrazyGameRenderer {
     private final int windowHeight;
     private final Color barColor = new Color(1f, 1f, 1f, 0.5f);
 
+    /**
+     * Lines of the bottom bar, rebuilt only when their numbers change.
+     */
+    private final HudLine fpsLine = new HudLine("fps: "),
+        scoreLine = new HudLine(""),
+        biggestLine = new HudLine("biggest: "),
+        timeLine = new HudLine("time: ");
+
     /**
      * Create new {@link CrazyGame} renderer.
      *
      * @param game the game logic to render
-     * @param gfx graphics controller
+     * @param target where to draw
      * @param gc game container
      * @param mouse mouse position
      */
-    public CrazyGameRenderer(CrazyGameLogic game, Graphics gfx, GameContainer gc, Vector2f mouse) {
+    public CrazyGameRenderer(CrazyGameLogic game, RenderTarget target, GameContainer gc, Vector2f mouse) {
         this.game = game;
         windowWidth = gc.getWidth();
         windowHeight = gc.getHeight();
         gameContainer = gc;
-        graphics = gfx;
+        this.target = target;
         mousePosition = mouse;
 
-        boardRenderer = new BoardRenderer(game.getBoard(), gfx, mouse);
-        scoreText = new BeatTextRenderer("goodtimes.regular", 16, "score:", 7.5f);
-        text = new TextRenderer("goodtimes.regular", 16);
+        boardRenderer = new BoardRenderer(game.getBoard(), target, mouse);
+        scoreText = new BeatTextRenderer(target, "goodtimes.regular", 16, "score:", 7.5f);
+        text = new TextRenderer(target, "goodtimes.regular", 16);
 
         particleRenderer = new BubbleEffectRenderer();
         particleRenderer.initParticleSystem();
-        scoreRenderer = new TextParticleRenderer();
+        scoreRenderer = new TextParticleRenderer(target);
     }
 
     /**
@@ -91,7 +100,14 @@ public class CrazyGameRenderer {
      * @param bubbles the bubbles that explode
      */
     public void explode(Set<Bubble> bubbles) {
-        boardRenderer.explode(bubbles);
+        int r = Settings.BUBBLE_RADIUS,
+            offset = Settings.BOARD_MARGIN + r / 2;
+        // The physics thread keeps the field, so every explosion gets its own.
+        ImpulseField explosion = new ImpulseField(2 * r, 0.001f);
+        for (Bubble bubble : bubbles) {
+            explosion.addSource(offset + bubble.x * r, offset + bubble.y * r);
+        }
+        boardRenderer.explode(explosion);
 
         if (Settings.is("particle_effects")) {
             for (Bubble bubble : bubbles) {
@@ -99,9 +115,7 @@ public class CrazyGameRenderer {
             }
         }
         if (Settings.is("score_effects")) {
-            for (Bubble bubble : bubbles) {
-                scoreRenderer.applyForce(bubble.getScreenPosition());
-            }
+            scoreRenderer.applyImpulse(explosion);
             scoreRenderer.addParticleEffect(""+game.calculateScore(bubbles.size()), mousePosition);
         }
     }
@@ -115,16 +129,20 @@ public class CrazyGameRenderer {
 
         scoreRenderer.render();
 
-        graphics.setColor(barColor);
-        graphics.fillRect(0, windowHeight - 28, windowWidth, 28);
+        target.setColor(barColor);
+        target.fillRect(0, windowHeight - 28, windowWidth, 28);
 
         int textY = windowHeight - 22;
-        text.render(windowWidth - 120, textY, "fps: " + gameContainer.getFPS());
+        fpsLine.set(gameContainer.getFPS());
+        text.render(windowWidth - 120, textY, fpsLine.getText());
 
         scoreText.render(6, textY + 2);
-        text.render(84, textY, "" + game.getScore());
-        text.render(206, textY, "biggest: " + game.getBiggestCluster());
-        text.render(356, textY, "time: " + game.getTime());
+        scoreLine.set(game.getScore());
+        text.render(84, textY, scoreLine.getText());
+        biggestLine.set(game.getBiggestCluster());
+        text.render(206, textY, biggestLine.getText());
+        timeLine.set(game.getTime());
+        text.render(356, textY, timeLine.getText());
 
         particleRenderer.render();
     }
@@ -135,8 +153,15 @@ public class CrazyGameRenderer {
      * @param delta delta time
      */
     public void update(int delta) {
-        boardRenderer.update(gameContainer, delta);
+        boardRenderer.update();
         particleRenderer.update(delta);
         scoreRenderer.update(gameContainer, delta);
     }
+
+    /**
+     * Stop the physics of the board.
+     */
+    public void stop() {
+        boardRenderer.stop();
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+/**
+ * Turns the varying frame times into a whole number of fixed steps. The time
+ * left over is carried to the next frame, and how far it is into the next
+ * step tells how much to interpolate between the last two states when
+ * rendering. After a very long frame only a few steps are taken and the rest
+ * of the time is dropped, so a slow frame can not make the next one slower.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class FixedStep {
+
+    /**
+     * Length of a step in milliseconds.
+     */
+    private final int step;
+    /**
+     * Most steps taken in one frame.
+     */
+    private final int maxSteps;
+    /**
+     * Time not yet stepped.
+     */
+    private int accumulator;
+
+    /**
+     * Create a new timer.
+     *
+     * @param step length of a step in milliseconds
+     * @param maxSteps most steps taken in one frame
+     */
+    public FixedStep(int step, int maxSteps) {
+        if (step < 1 || maxSteps < 1) {
+            throw new IllegalArgumentException("Bad step: " + step + ", " + maxSteps);
+        }
+        this.step = step;
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Let time pass.
+     *
+     * @param delta delta time
+     * @return how many steps to take
+     */
+    public int advance(int delta) {
+        if (delta < 0) {
+            throw new IllegalArgumentException("Time can not go back: " + delta);
+        }
+        accumulator += delta;
+        int steps = accumulator / step;
+        if (steps > maxSteps) {
+            steps = maxSteps;
+            accumulator = 0;
+        } else {
+            accumulator -= steps * step;
+        }
+        return steps;
+    }
+
+    /**
+     * @return how far into the next step we are, from 0 to 1
+     */
+    public float getAlpha() {
+        return accumulator / (float) step;
+    }
+
+    /**
+     * @return length of a step in milliseconds
+     */
+    public int getStep() {
+        return step;
+    }
+}
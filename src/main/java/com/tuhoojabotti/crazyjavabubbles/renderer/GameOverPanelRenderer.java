@@ -26,10 +26,11 @@ package com.tuhoojabotti.crazyjavabubbles.renderer;
 import static com.tuhoojabotti.crazyjavabubbles.main.Util.curveValue;
 import com.tuhoojabotti.crazyjavabubbles.renderer.text.TextRenderer;
 import com.tuhoojabotti.crazyjavabubbles.renderer.text.BeatTextRenderer;
+import com.tuhoojabotti.crazyjavabubbles.renderer.text.HudLine;
 import com.tuhoojabotti.crazyjavabubbles.logic.CrazyGameLogic;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RenderTarget;
 import org.newdawn.slick.Color;
 import org.newdawn.slick.GameContainer;
-import org.newdawn.slick.Graphics;
 import org.newdawn.slick.geom.Vector2f;
 
 /**
@@ -45,9 +46,9 @@ public class GameOverPanelRenderer extends Vector2f {
      */
     private GameContainer gameContainer;
     /**
-     * Graphics object.
+     * Where to draw.
      */
-    private Graphics graphics;
+    private RenderTarget target;
 
     /**
      * "Game Over" -text
@@ -57,6 +58,14 @@ public class GameOverPanelRenderer extends Vector2f {
      * Text for the score statistics
      */
     private TextRenderer scoreText;
+    /**
+     * Lines of the score statistics, rebuilt only when their numbers change
+     */
+    private final HudLine scoreLine = new HudLine("score: "),
+        clusterLine = new HudLine(" + cluster bonus: "),
+        timeLine = new HudLine("  -  time penalty: "),
+        totalLine = new HudLine("total score: "),
+        poppedLine = new HudLine("bubbles popped: ", 2, " %");
     /**
      * Logic for score statistics
      */
@@ -74,18 +83,18 @@ public class GameOverPanelRenderer extends Vector2f {
      * Creates a new game over panel.
      *
      * @param gc game container
-     * @param gfx graphics object
+     * @param target where to draw
      * @param game game logic
      */
-    public GameOverPanelRenderer(GameContainer gc, Graphics gfx, CrazyGameLogic game) {
+    public GameOverPanelRenderer(GameContainer gc, RenderTarget target, CrazyGameLogic game) {
         super(gc.getWidth() / 2, -gc.getHeight());
         backgroundColor = new Color(1f, 1f, 1f, 0.6f);
         logic = game;
         gameContainer = gc;
-        graphics = gfx;
-        titleText = new BeatTextRenderer("sweet-as-candy.regular", 34, "Game Over!", 20f);
+        this.target = target;
+        titleText = new BeatTextRenderer(target, "sweet-as-candy.regular", 34, "Game Over!", 20f);
         titleText.setHorizontalAlign(TextRenderer.Align.CENTER);
-        scoreText = new TextRenderer("goodtimes.regular", 16);
+        scoreText = new TextRenderer(target, "goodtimes.regular", 16);
     }
 
     /**
@@ -93,8 +102,8 @@ public class GameOverPanelRenderer extends Vector2f {
      */
     public void render() {
         int w = gameContainer.getWidth();
-        graphics.setColor(backgroundColor);
-        graphics.fillRoundRect(x - w / 4, y, w / 2, gameContainer.getHeight() / 2, 20, 30);
+        target.setColor(backgroundColor);
+        target.fillRoundRect(x - w / 4, y, w / 2, gameContainer.getHeight() / 2, 20, 30);
 
         titleText.render((int) x, (int) y + 35);
 
@@ -109,13 +118,19 @@ public class GameOverPanelRenderer extends Vector2f {
     private void renderScoreStatistics(int w) {
         int textX = (int) x - w / 4 + 20, textY = 100;
 
-        scoreText.render(textX, (int) y + textY, "score: " + logic.getScore());
-        scoreText.render(textX, (int) y + textY + 20, " + cluster bonus: " + logic.getBiggestClusterBonus());
-        scoreText.render(textX, (int) y + textY + 40, "  -  time penalty: " + logic.getTimeBonus());
+        scoreLine.set(logic.getScore());
+        scoreText.render(textX, (int) y + textY, scoreLine.getText());
+        clusterLine.set(logic.getBiggestClusterBonus());
+        scoreText.render(textX, (int) y + textY + 20, clusterLine.getText());
+        timeLine.set(logic.getTimeBonus());
+        scoreText.render(textX, (int) y + textY + 40, timeLine.getText());
 
-        scoreText.render(textX, (int) y + textY + 80, "total score: " + logic.getTotalScore());
-        scoreText.render(textX, (int) y + textY + 120, "bubbles popped: "
-            + String.format("%1$.2f", logic.getBubblesPopped() / (double) (24 * 17) * 100) + " %");
+        totalLine.set(logic.getTotalScore());
+        scoreText.render(textX, (int) y + textY + 80, totalLine.getText());
+        // In hundredths of a percent.
+        poppedLine.set((int) Math.round(logic.getBubblesPopped() * 10000.0
+            / (logic.getBoard().getWidth() * logic.getBoard().getHeight())));
+        scoreText.render(textX, (int) y + textY + 120, poppedLine.getText());
 
         scoreText.render(textX, (int) y + textY + 160, "Click for a new game :)");
     }
@@ -0,0 +1,257 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import java.util.Arrays;
+
+/**
+ * The push of an explosion. The popped bubbles are the sources and they are
+ * collected into square tiles, each tile acting as one source of its weight
+ * at its centroid. Receivers far from a tile feel only the centroid, near
+ * ones feel the sources of the tile one by one, and tiles too weak to matter
+ * at a receiver's distance are skipped. Every source pushes with a strength
+ * of one over the distance. Needs no display.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class ImpulseField {
+
+    /**
+     * Side of a tile.
+     */
+    private final float tileSize;
+    /**
+     * Receivers closer than this to a centroid feel its sources one by one.
+     */
+    private final float nearDistance;
+    /**
+     * Pushes weaker than this are skipped.
+     */
+    private final float minImpulse;
+
+    /**
+     * Location of each source, grouped by tile after {@link #build()}.
+     */
+    private float[] sourceX, sourceY;
+    /**
+     * Room for reordering the sources.
+     */
+    private float[] spareX, spareY;
+    /**
+     * Tile key and index of each source, used for sorting.
+     */
+    private long[] keys;
+    /**
+     * Number of sources.
+     */
+    private int sources;
+    /**
+     * Centroid and weight of each tile.
+     */
+    private float[] centroidX, centroidY, weight;
+    /**
+     * First source of each tile.
+     */
+    private int[] start;
+    /**
+     * Number of tiles.
+     */
+    private int tiles;
+    /**
+     * Are the tiles up to date.
+     */
+    private boolean built = true;
+
+    /**
+     * Create an empty field.
+     *
+     * @param tileSize side of a tile
+     * @param minImpulse pushes weaker than this are skipped
+     */
+    public ImpulseField(float tileSize, float minImpulse) {
+        if (tileSize <= 0 || minImpulse < 0) {
+            throw new IllegalArgumentException("Bad field: " + tileSize + ", " + minImpulse);
+        }
+        this.tileSize = tileSize;
+        this.nearDistance = tileSize * 2;
+        this.minImpulse = minImpulse;
+        sourceX = new float[16];
+        sourceY = new float[16];
+        spareX = new float[16];
+        spareY = new float[16];
+        keys = new long[16];
+        centroidX = new float[16];
+        centroidY = new float[16];
+        weight = new float[16];
+        start = new int[17];
+    }
+
+    /**
+     * Remove all sources.
+     */
+    public void clear() {
+        sources = 0;
+        tiles = 0;
+        built = true;
+    }
+
+    /**
+     * Add a source.
+     *
+     * @param x x-coordinate of the source
+     * @param y y-coordinate of the source
+     */
+    public void addSource(float x, float y) {
+        if (sources == sourceX.length) {
+            sourceX = Arrays.copyOf(sourceX, sources * 2);
+            sourceY = Arrays.copyOf(sourceY, sources * 2);
+            spareX = new float[sources * 2];
+            spareY = new float[sources * 2];
+            keys = Arrays.copyOf(keys, sources * 2);
+        }
+        sourceX[sources] = x;
+        sourceY[sources] = y;
+        sources++;
+        built = false;
+    }
+
+    /**
+     * Collect the sources into tiles. Called by {@link #push} when needed.
+     */
+    public void build() {
+        if (built) {
+            return;
+        }
+        for (int i = 0; i < sources; i++) {
+            long tileX = (long) Math.floor(sourceX[i] / tileSize) & 0xFFFF,
+                tileY = (long) Math.floor(sourceY[i] / tileSize) & 0xFFFF;
+            keys[i] = (tileX << 48) | (tileY << 32) | i;
+        }
+        Arrays.sort(keys, 0, sources);
+
+        // Reorder the sources by tile.
+        float[] sortedX = spareX,
+            sortedY = spareY;
+        tiles = 0;
+        long tile = -1;
+        for (int i = 0; i < sources; i++) {
+            int source = (int) keys[i];
+            if (keys[i] >>> 32 != tile) {
+                tile = keys[i] >>> 32;
+                addTile(i);
+            }
+            sortedX[i] = sourceX[source];
+            sortedY[i] = sourceY[source];
+            centroidX[tiles - 1] += sortedX[i];
+            centroidY[tiles - 1] += sortedY[i];
+            weight[tiles - 1]++;
+        }
+        spareX = sourceX;
+        spareY = sourceY;
+        sourceX = sortedX;
+        sourceY = sortedY;
+        start[tiles] = sources;
+        for (int i = 0; i < tiles; i++) {
+            centroidX[i] /= weight[i];
+            centroidY[i] /= weight[i];
+        }
+        built = true;
+    }
+
+    /**
+     * Start a new tile.
+     *
+     * @param first its first source
+     */
+    private void addTile(int first) {
+        if (tiles == weight.length) {
+            centroidX = Arrays.copyOf(centroidX, tiles * 2);
+            centroidY = Arrays.copyOf(centroidY, tiles * 2);
+            weight = Arrays.copyOf(weight, tiles * 2);
+            start = Arrays.copyOf(start, tiles * 2 + 1);
+        }
+        centroidX[tiles] = 0;
+        centroidY[tiles] = 0;
+        weight[tiles] = 0;
+        start[tiles] = first;
+        tiles++;
+    }
+
+    /**
+     * Sum the pushes of all sources on a receiver. The push points away from
+     * the sources.
+     *
+     * @param x x-coordinate of the receiver
+     * @param y y-coordinate of the receiver
+     * @param minDistance distances are at least this, so close sources do
+     * not push infinitely hard
+     * @param push where to store the x and y of the push
+     */
+    public void push(float x, float y, float minDistance, float[] push) {
+        build();
+        float px = 0, py = 0;
+        for (int t = 0; t < tiles; t++) {
+            float dx = x - centroidX[t],
+                dy = y - centroidY[t],
+                length = (float) Math.sqrt(dx * dx + dy * dy);
+            // Even the whole tile at its closest possible distance is too weak.
+            if (weight[t] < minImpulse * Math.max(minDistance, length - nearDistance)) {
+                continue;
+            }
+            if (length >= nearDistance) {
+                float strength = weight[t] / Math.max(minDistance, length) / length;
+                px += dx * strength;
+                py += dy * strength;
+                continue;
+            }
+            for (int i = start[t]; i < start[t + 1]; i++) {
+                float sx = x - sourceX[i],
+                    sy = y - sourceY[i],
+                    distance = (float) Math.sqrt(sx * sx + sy * sy);
+                if (distance > 0) {
+                    float strength = 1 / Math.max(minDistance, distance) / distance;
+                    px += sx * strength;
+                    py += sy * strength;
+                }
+            }
+        }
+        push[0] = px;
+        push[1] = py;
+    }
+
+    /**
+     * @return number of sources
+     */
+    public int getSourceCount() {
+        return sources;
+    }
+
+    /**
+     * @return number of tiles
+     */
+    public int getTileCount() {
+        build();
+        return tiles;
+    }
+}
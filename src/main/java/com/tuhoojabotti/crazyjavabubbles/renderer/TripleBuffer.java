@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands frames from one writer thread to one reader thread without locks.
+ * Of the three buffers the writer fills the back one, the reader draws the
+ * front one and the middle one holds the latest finished frame. Publishing
+ * swaps the back with the middle, and reading swaps the middle with the
+ * front if a new frame is there, so neither side ever waits for the other
+ * or touches a buffer the other one is using.
+ *
+ * @param <T> type of the buffers
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class TripleBuffer<T> {
+
+    /**
+     * Set in {@link #middle} when it holds a frame not yet read.
+     */
+    private static final int FRESH = 4;
+    /**
+     * The buffers.
+     */
+    private final T[] buffers;
+    /**
+     * Index of the middle buffer, and whether it is fresh.
+     */
+    private final AtomicInteger middle = new AtomicInteger(1);
+    /**
+     * Index of the buffer the writer fills, only touched by the writer.
+     */
+    private int back = 0;
+    /**
+     * Index of the buffer the reader reads, only touched by the reader.
+     */
+    private int front = 2;
+
+    /**
+     * Create a triple buffer.
+     *
+     * @param first the first buffer
+     * @param second the second buffer
+     * @param third the third buffer
+     */
+    @SuppressWarnings("unchecked")
+    public TripleBuffer(T first, T second, T third) {
+        buffers = (T[]) new Object[]{first, second, third};
+    }
+
+    /**
+     * @return the buffer to write the next frame to
+     */
+    public T getBack() {
+        return buffers[back];
+    }
+
+    /**
+     * Publish the back buffer as the latest frame and get a new back buffer.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & 3;
+    }
+
+    /**
+     * @return the latest published frame
+     */
+    public T getFront() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & 3;
+        }
+        return buffers[front];
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.draw;
+
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Font;
+import org.newdawn.slick.Image;
+
+/**
+ * Counts what is drawn instead of drawing it, so the draw calls and colour
+ * switches of a frame can be checked without a display. A colour switch is
+ * a draw with a different colour than the one before it, whether it is set
+ * with {@link #setColor(Color)} or comes with a string or a sprite. Nothing
+ * is allocated while recording.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class RecordingRenderTarget implements RenderTarget {
+
+    /**
+     * Number of each command since the last reset.
+     */
+    private final int[] counts = new int[RenderCommand.values().length];
+    /**
+     * Number of colour switches since the last reset.
+     */
+    private int colorSwitches;
+    /**
+     * The colour in use.
+     */
+    private Color color;
+    /**
+     * Are sprites being drawn.
+     */
+    private boolean inBatch;
+
+    /**
+     * Forget what has been drawn, for example when a new frame starts.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        colorSwitches = 0;
+        color = null;
+    }
+
+    /**
+     * @param command a kind of command
+     * @return how many times it was given
+     */
+    public int getCount(RenderCommand command) {
+        return counts[command.ordinal()];
+    }
+
+    /**
+     * @return number of shapes, strings and sprites drawn
+     */
+    public int getDrawCalls() {
+        return getCount(RenderCommand.RECT) + getCount(RenderCommand.ROUND_RECT)
+            + getCount(RenderCommand.OVAL) + getCount(RenderCommand.STRING)
+            + getCount(RenderCommand.SPRITE);
+    }
+
+    /**
+     * @return number of times the colour changed
+     */
+    public int getColorSwitches() {
+        return colorSwitches;
+    }
+
+    /**
+     * Count a command.
+     *
+     * @param command the command
+     * @param newColor colour it draws with, null for the current one
+     */
+    private void record(RenderCommand command, Color newColor) {
+        if (inBatch != (command == RenderCommand.SPRITE)) {
+            throw new IllegalStateException(command + (inBatch
+                ? " while drawing sprites" : " without beginSprites"));
+        }
+        counts[command.ordinal()]++;
+        if (newColor != null && !newColor.equals(color)) {
+            colorSwitches++;
+            color = newColor;
+        }
+    }
+
+    @Override
+    public void setColor(Color color) {
+        record(RenderCommand.COLOR, color);
+    }
+
+    @Override
+    public void fillRect(float x, float y, float width, float height) {
+        record(RenderCommand.RECT, null);
+    }
+
+    @Override
+    public void fillRoundRect(float x, float y, float width, float height,
+        int cornerRadius, int segments) {
+        record(RenderCommand.ROUND_RECT, null);
+    }
+
+    @Override
+    public void fillOval(float x, float y, float width, float height, int segments) {
+        record(RenderCommand.OVAL, null);
+    }
+
+    @Override
+    public void drawString(Font font, float x, float y, String text, Color color) {
+        record(RenderCommand.STRING, color);
+    }
+
+    @Override
+    public void beginSprites(Image image) {
+        record(RenderCommand.SPRITE_BATCH, null);
+        inBatch = true;
+        // A batch starts white.
+        color = Color.white;
+    }
+
+    @Override
+    public void drawSprite(float x, float y, float x2, float y2,
+        float srcX, float srcY, float srcX2, float srcY2, Color filter) {
+        record(RenderCommand.SPRITE, filter);
+    }
+
+    @Override
+    public void endSprites() {
+        if (!inBatch) {
+            throw new IllegalStateException("endSprites without beginSprites");
+        }
+        inBatch = false;
+    }
+}
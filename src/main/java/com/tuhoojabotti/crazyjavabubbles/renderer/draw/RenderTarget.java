@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.draw;
+
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Font;
+import org.newdawn.slick.Image;
+
+/**
+ * Where the renderers draw to. Every draw of the game goes through this, so
+ * it can be drawn on screen with {@link SlickRenderTarget} or counted
+ * without a display with {@link RecordingRenderTarget}.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public interface RenderTarget {
+
+    /**
+     * Set the colour of the shapes drawn next.
+     *
+     * @param color the colour
+     */
+    void setColor(Color color);
+
+    /**
+     * Fill a rectangle.
+     *
+     * @param x x of the top left corner
+     * @param y y of the top left corner
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     */
+    void fillRect(float x, float y, float width, float height);
+
+    /**
+     * Fill a rectangle with round corners.
+     *
+     * @param x x of the top left corner
+     * @param y y of the top left corner
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     * @param cornerRadius radius of the corners
+     * @param segments number of segments in a corner
+     */
+    void fillRoundRect(float x, float y, float width, float height,
+        int cornerRadius, int segments);
+
+    /**
+     * Fill an oval.
+     *
+     * @param x x of the top left corner
+     * @param y y of the top left corner
+     * @param width width of the oval
+     * @param height height of the oval
+     * @param segments number of segments in the oval
+     */
+    void fillOval(float x, float y, float width, float height, int segments);
+
+    /**
+     * Draw a string.
+     *
+     * @param font the font to draw with
+     * @param x x of the top left corner
+     * @param y y of the top left corner
+     * @param text the text
+     * @param color colour of the text
+     */
+    void drawString(Font font, float x, float y, String text, Color color);
+
+    /**
+     * Start drawing sprites from an image. Nothing else may be drawn until
+     * {@link #endSprites()}.
+     *
+     * @param image the image with the sprites
+     */
+    void beginSprites(Image image);
+
+    /**
+     * Draw a part of the image given to {@link #beginSprites(Image)}.
+     *
+     * @param x x of the top left corner
+     * @param y y of the top left corner
+     * @param x2 x of the bottom right corner
+     * @param y2 y of the bottom right corner
+     * @param srcX x of the top left corner in the image
+     * @param srcY y of the top left corner in the image
+     * @param srcX2 x of the bottom right corner in the image
+     * @param srcY2 y of the bottom right corner in the image
+     * @param filter colour to tint it with
+     */
+    void drawSprite(float x, float y, float x2, float y2,
+        float srcX, float srcY, float srcX2, float srcY2, Color filter);
+
+    /**
+     * Stop drawing sprites.
+     */
+    void endSprites();
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.draw;
+
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Font;
+import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Image;
+
+/**
+ * Draws on screen with Slick.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class SlickRenderTarget implements RenderTarget {
+
+    /**
+     * Graphics object
+     */
+    private final Graphics graphics;
+    /**
+     * The image sprites are drawn from.
+     */
+    private Image sprites;
+
+    /**
+     * Create a target that draws with a graphics object.
+     *
+     * @param gfx graphics controller
+     */
+    public SlickRenderTarget(Graphics gfx) {
+        graphics = gfx;
+    }
+
+    @Override
+    public void setColor(Color color) {
+        graphics.setColor(color);
+    }
+
+    @Override
+    public void fillRect(float x, float y, float width, float height) {
+        graphics.fillRect(x, y, width, height);
+    }
+
+    @Override
+    public void fillRoundRect(float x, float y, float width, float height,
+        int cornerRadius, int segments) {
+        graphics.fillRoundRect(x, y, width, height, cornerRadius, segments);
+    }
+
+    @Override
+    public void fillOval(float x, float y, float width, float height, int segments) {
+        graphics.fillOval(x, y, width, height, segments);
+    }
+
+    @Override
+    public void drawString(Font font, float x, float y, String text, Color color) {
+        font.drawString(x, y, text, color);
+    }
+
+    @Override
+    public void beginSprites(Image image) {
+        sprites = image;
+        sprites.startUse();
+    }
+
+    @Override
+    public void drawSprite(float x, float y, float x2, float y2,
+        float srcX, float srcY, float srcX2, float srcY2, Color filter) {
+        sprites.drawEmbedded(x, y, x2, y2, srcX, srcY, srcX2, srcY2, filter);
+    }
+
+    @Override
+    public void endSprites() {
+        sprites.endUse();
+        sprites = null;
+    }
+}
@@ -23,20 +23,14 @@
  */
 package com.tuhoojabotti.crazyjavabubbles.renderer.text;
 
-import com.tuhoojabotti.crazyjavabubbles.main.Util;
-import java.awt.Font;
-import java.awt.FontFormatException;
-import java.io.IOException;
-import java.io.InputStream;
-import org.newdawn.slick.SlickException;
-import org.newdawn.slick.UnicodeFont;
-import org.newdawn.slick.font.effects.ColorEffect;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RenderTarget;
+import org.newdawn.slick.Font;
 import org.newdawn.slick.geom.Vector2f;
-import org.newdawn.slick.util.ResourceLoader;
 
 /**
  * A foundation for a text renderer.
- * It handles font loading and alignment, but not actual rendering.
+ * It handles fonts and alignment, but not actual rendering.
+ * The text is drawn to a {@link RenderTarget}.
  * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
  */
 public abstract class AbstractTextRenderer {
@@ -49,10 +43,14 @@ public abstract class AbstractTextRenderer {
         LEFT, RIGHT, CENTER, TOP, MIDDLE, BOTTOM
     }
 
+    /**
+     * Where to draw.
+     */
+    protected final RenderTarget target;
     /**
      * The font to use.
      */
-    protected UnicodeFont font;
+    protected final Font font;
 
     /**
      * Horizontal alignment of the text.
@@ -65,33 +63,32 @@ public abstract class AbstractTextRenderer {
     private Align verticalAlign = Align.TOP;
 
     /**
+     * Use a font from the {@link FontRegistry}.
      *
+     * @param target where to draw
      * @param fontName
      * @param size
      */
-    public AbstractTextRenderer(String fontName, int size) {
-        try {
-            font = loadFont(fontName, size);
-            font.addAsciiGlyphs();
-            font.getEffects().add(new ColorEffect(java.awt.Color.WHITE));
+    public AbstractTextRenderer(RenderTarget target, String fontName, int size) {
+        this(target, FontRegistry.getShared().get(fontName, size));
+    }
 
-            font.loadGlyphs();
-        } catch (SlickException e) {
-            Util.fatalError("Failed to initialize font.", AbstractTextRenderer.class, e);
-        }
+    /**
+     * Use a font that is already loaded.
+     *
+     * @param target where to draw
+     * @param font the font
+     */
+    public AbstractTextRenderer(RenderTarget target, Font font) {
+        this.target = target;
+        this.font = font;
     }
 
-    private UnicodeFont loadFont(String fontName, int size) {
-        try {
-            InputStream inputStream = ResourceLoader.getResourceAsStream(
-                "fonts/" + fontName + ".ttf");
-            Font awtFont = Font.createFont(Font.TRUETYPE_FONT, inputStream);
-            awtFont = awtFont.deriveFont(size); // Set font size.
-            return new UnicodeFont(awtFont, size, false, false);
-        } catch (FontFormatException | IOException e) {
-            Font awtFont = new Font("Arial", Font.PLAIN, size);
-            return new UnicodeFont(awtFont);
-        }
+    /**
+     * @return the font in use
+     */
+    public Font getFont() {
+        return font;
     }
 
     public void setHorizontalAlign(Align horizontalAlign) {
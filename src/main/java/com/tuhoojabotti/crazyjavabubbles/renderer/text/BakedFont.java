@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.text;
+
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Font;
+import org.newdawn.slick.Image;
+
+/**
+ * A font drawn from a pre-baked glyph page, one textured quad per
+ * character. Only the printable ASCII characters are there, the rest are
+ * skipped.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BakedFont implements Font {
+
+    /**
+     * Metrics of the glyphs.
+     */
+    private final BakedGlyphs glyphs;
+    /**
+     * The glyph page.
+     */
+    private final Image page;
+
+    /**
+     * Create a font.
+     *
+     * @param glyphs metrics of the glyphs
+     * @param page the glyph page
+     */
+    public BakedFont(BakedGlyphs glyphs, Image page) {
+        this.glyphs = glyphs;
+        this.page = page;
+    }
+
+    @Override
+    public int getWidth(String text) {
+        return glyphs.getWidth(text);
+    }
+
+    @Override
+    public int getHeight(String text) {
+        return glyphs.getLineHeight();
+    }
+
+    @Override
+    public int getLineHeight() {
+        return glyphs.getLineHeight();
+    }
+
+    @Override
+    public void drawString(float x, float y, String text) {
+        drawString(x, y, text, Color.white, 0, text.length());
+    }
+
+    @Override
+    public void drawString(float x, float y, String text, Color color) {
+        drawString(x, y, text, color, 0, text.length());
+    }
+
+    @Override
+    public void drawString(float x, float y, String text, Color color, int start, int end) {
+        page.startUse();
+        float pen = x;
+        for (int i = start; i < end; i++) {
+            int g = BakedGlyphs.index(text.charAt(i));
+            if (g < 0) {
+                continue;
+            }
+            if (glyphs.width[g] > 0) {
+                float left = pen + glyphs.xOffset[g],
+                    top = y + glyphs.yOffset[g];
+                page.drawEmbedded(left, top, left + glyphs.width[g], top + glyphs.height[g],
+                    glyphs.x[g], glyphs.y[g], glyphs.x[g] + glyphs.width[g],
+                    glyphs.y[g] + glyphs.height[g], color);
+            }
+            pen += glyphs.advance[g];
+        }
+        page.endUse();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.text;
+
+/**
+ * Where the printable ASCII glyphs of a font are on its glyph page and how
+ * they are laid out on a line. Offsets are from the top left corner of the
+ * line, so a glyph is drawn at the pen position plus its offset.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BakedGlyphs {
+
+    /**
+     * The first baked character.
+     */
+    public static final char FIRST = ' ';
+    /**
+     * The last baked character.
+     */
+    public static final char LAST = '~';
+    /**
+     * Number of baked characters.
+     */
+    public static final int COUNT = LAST - FIRST + 1;
+
+    /**
+     * Height of a line.
+     */
+    final int lineHeight;
+    /**
+     * Location of each glyph on the page.
+     */
+    final int[] x = new int[COUNT], y = new int[COUNT];
+    /**
+     * Size of each glyph.
+     */
+    final int[] width = new int[COUNT], height = new int[COUNT];
+    /**
+     * Offset of each glyph from the pen.
+     */
+    final int[] xOffset = new int[COUNT], yOffset = new int[COUNT];
+    /**
+     * How far each glyph moves the pen.
+     */
+    final int[] advance = new int[COUNT];
+
+    /**
+     * Create empty metrics.
+     *
+     * @param lineHeight height of a line
+     */
+    BakedGlyphs(int lineHeight) {
+        this.lineHeight = lineHeight;
+    }
+
+    /**
+     * @param c a character
+     * @return index of the character, or -1 if it is not baked
+     */
+    static int index(char c) {
+        return c >= FIRST && c <= LAST ? c - FIRST : -1;
+    }
+
+    /**
+     * @return height of a line
+     */
+    public int getLineHeight() {
+        return lineHeight;
+    }
+
+    /**
+     * @param text a line of text
+     * @return width of the text
+     */
+    public int getWidth(String text) {
+        return getWidth(text, 0, text.length());
+    }
+
+    /**
+     * @param text a line of text
+     * @param start index of the first character
+     * @param end index after the last character
+     * @return width of the characters
+     */
+    public int getWidth(String text, int start, int end) {
+        int w = 0;
+        for (int i = start; i < end; i++) {
+            int glyph = index(text.charAt(i));
+            if (glyph >= 0) {
+                w += advance[glyph];
+            }
+        }
+        return w;
+    }
+}
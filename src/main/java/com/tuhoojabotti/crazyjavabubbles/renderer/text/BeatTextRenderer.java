@@ -23,7 +23,9 @@
  */
 package com.tuhoojabotti.crazyjavabubbles.renderer.text;
 
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RenderTarget;
 import org.newdawn.slick.Color;
+import org.newdawn.slick.Font;
 import org.newdawn.slick.geom.Vector2f;
 
 /**
@@ -60,24 +62,41 @@ public class BeatTextRenderer extends AbstractTextRenderer {
     /**
      * Create a new text with default jump height.
      *
+     * @param target where to draw
      * @param fontName name of the font
      * @param size size of the text
      * @param text the text to draw
      */
-    public BeatTextRenderer(String fontName, int size, String text) {
-        this(fontName, size, text, 50f);
+    public BeatTextRenderer(RenderTarget target, String fontName, int size, String text) {
+        this(target, fontName, size, text, 50f);
     }
 
     /**
      * Create a new text with custom jump height.
      *
+     * @param target where to draw
      * @param font name of the font
      * @param size size of the text
      * @param text the text to draw
      * @param height how much to boost or reduce the height
      */
-    public BeatTextRenderer(String font, int size, String text, float height) {
-        super(font, size);
+    public BeatTextRenderer(RenderTarget target, String font, int size, String text, float height) {
+        super(target, font, size);
+        this.text = text;
+        jumpHeight = height;
+        precalculate();
+    }
+
+    /**
+     * Create a new text with a loaded font.
+     *
+     * @param target where to draw
+     * @param font the font
+     * @param text the text to draw
+     * @param height how much to boost or reduce the height
+     */
+    public BeatTextRenderer(RenderTarget target, Font font, String text, float height) {
+        super(target, font);
         this.text = text;
         jumpHeight = height;
         precalculate();
@@ -117,7 +136,7 @@ public class BeatTextRenderer extends AbstractTextRenderer {
         double ti = (System.currentTimeMillis() / beatFrequency);
         Vector2f position = calculateAlignment(x, y, text);
         for (int i = 0; i < length; i++) {
-            font.drawString(
+            target.drawString(font,
                 position.x + widths[i],
                 // Just calculate y-coord with this simple equation.
                 (float) (position.y - Math.sin(
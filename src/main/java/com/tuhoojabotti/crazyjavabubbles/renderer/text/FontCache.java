@@ -0,0 +1,358 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.text;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import javax.imageio.ImageIO;
+import org.newdawn.slick.Font;
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+
+/**
+ * Keeps baked fonts on disk so they are rasterized only on the first run.
+ * A font is stored as a glyph page image and a metrics file. The metrics
+ * file is stamped with the font file and the settings it was baked from,
+ * and a font whose stamp does not match is baked again.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class FontCache {
+
+    /**
+     * Identifies a metrics file.
+     */
+    private static final int MAGIC = 0x434a4246; // "CJBF"
+    /**
+     * Version of the metrics file, bump when baking changes.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size of a metrics file: magic, version, stamp, line height and seven
+     * numbers per glyph.
+     */
+    static final int FILE_SIZE = 4 + 4 + 8 + 4 + BakedGlyphs.COUNT * 7 * 4;
+    /**
+     * Width of a glyph page.
+     */
+    private static final int PAGE_WIDTH = 512;
+    /**
+     * Empty pixels around each glyph.
+     */
+    private static final int PADDING = 2;
+
+    /**
+     * Where the fonts are kept.
+     */
+    private final File directory;
+    /**
+     * Number of fonts baked.
+     */
+    private int bakes;
+
+    /**
+     * Create a cache.
+     *
+     * @param directory where the fonts are kept
+     */
+    public FontCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * A baked font before it is turned into a texture.
+     */
+    static class Baked {
+
+        /**
+         * Metrics of the glyphs.
+         */
+        final BakedGlyphs glyphs;
+        /**
+         * The glyph page.
+         */
+        final BufferedImage page;
+
+        /**
+         * @param glyphs metrics of the glyphs
+         * @param page the glyph page
+         */
+        Baked(BakedGlyphs glyphs, BufferedImage page) {
+            this.glyphs = glyphs;
+            this.page = page;
+        }
+    }
+
+    /**
+     * Get a font from the cache, baking it first if it is not there or is
+     * stale. Needs a display.
+     *
+     * @param name name of the cached files
+     * @param key what the font was made from, see {@link FontRegistry}
+     * @param source contents of the font file
+     * @param face the typeface in the right size
+     * @param color colour of the glyphs
+     * @return the font
+     * @throws IOException if the page can not be read
+     * @throws SlickException if the page can not be made into a texture
+     */
+    public Font load(String name, String key, byte[] source, java.awt.Font face,
+            java.awt.Color color) throws IOException, SlickException {
+        File glyphFile = getGlyphFile(name, key), pageFile = getPageFile(name, key);
+        long stamp = stamp(source, key);
+        BakedGlyphs glyphs = pageFile.isFile() ? read(glyphFile, stamp) : null;
+        InputStream page;
+        if (glyphs != null) {
+            page = new FileInputStream(pageFile);
+        } else {
+            Baked baked = bake(face, color);
+            glyphs = baked.glyphs;
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(baked.page, "png", png);
+            try {
+                store(pageFile, png.toByteArray());
+                write(glyphFile, stamp, glyphs);
+            } catch (IOException e) {
+                // The font still works, it is just baked again next time.
+            }
+            page = new ByteArrayInputStream(png.toByteArray());
+        }
+        try {
+            return new BakedFont(glyphs, new Image(page, pageFile.getName(), false));
+        } finally {
+            page.close();
+        }
+    }
+
+    /**
+     * @return number of fonts baked so far
+     */
+    public int getBakes() {
+        return bakes;
+    }
+
+    /**
+     * @param name name of the cached files
+     * @param key what the font was made from
+     * @return the metrics file
+     */
+    File getGlyphFile(String name, String key) {
+        return new File(directory, fileName(name, key) + ".glyphs");
+    }
+
+    /**
+     * @param name name of the cached files
+     * @param key what the font was made from
+     * @return the page image file
+     */
+    File getPageFile(String name, String key) {
+        return new File(directory, fileName(name, key) + ".png");
+    }
+
+    /**
+     * Name the files so that fonts with different effects do not share them.
+     *
+     * @param name name of the cached files
+     * @param key what the font was made from
+     * @return name without the extension
+     */
+    private static String fileName(String name, String key) {
+        CRC32 crc = new CRC32();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return name + "-" + Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Sum up everything a baked font depends on.
+     *
+     * @param source contents of the font file
+     * @param key what the font was made from
+     * @return the stamp
+     */
+    static long stamp(byte[] source, String key) {
+        CRC32 crc = new CRC32();
+        crc.update(source);
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        crc.update(VERSION);
+        return crc.getValue();
+    }
+
+    /**
+     * Rasterize the glyphs on a page, row by row.
+     *
+     * @param face the typeface in the right size
+     * @param color colour of the glyphs
+     * @return the metrics and the page
+     */
+    Baked bake(java.awt.Font face, java.awt.Color color) {
+        FontRenderContext context = new FontRenderContext(null, true, false);
+        LineMetrics line = face.getLineMetrics("Ag", context);
+        int ascent = (int) Math.ceil(line.getAscent());
+        BakedGlyphs glyphs = new BakedGlyphs(ascent
+            + (int) Math.ceil(line.getDescent() + line.getLeading()));
+        GlyphVector[] vectors = new GlyphVector[BakedGlyphs.COUNT];
+        Rectangle[] bounds = new Rectangle[BakedGlyphs.COUNT];
+
+        int x = PADDING, y = PADDING, rowHeight = 0;
+        for (int i = 0; i < BakedGlyphs.COUNT; i++) {
+            vectors[i] = face.createGlyphVector(context, String.valueOf((char) (BakedGlyphs.FIRST + i)));
+            bounds[i] = vectors[i].getPixelBounds(context, 0, 0);
+            glyphs.advance[i] = Math.round(vectors[i].getGlyphMetrics(0).getAdvanceX());
+            if (bounds[i].isEmpty()) {
+                continue;
+            }
+            if (x + bounds[i].width + PADDING > PAGE_WIDTH) {
+                x = PADDING;
+                y += rowHeight + PADDING;
+                rowHeight = 0;
+            }
+            glyphs.x[i] = x;
+            glyphs.y[i] = y;
+            glyphs.width[i] = bounds[i].width;
+            glyphs.height[i] = bounds[i].height;
+            glyphs.xOffset[i] = bounds[i].x;
+            glyphs.yOffset[i] = bounds[i].y + ascent;
+            x += bounds[i].width + PADDING;
+            rowHeight = Math.max(rowHeight, bounds[i].height);
+        }
+
+        int height = 1;
+        while (height < y + rowHeight + PADDING) {
+            height *= 2;
+        }
+        BufferedImage page = new BufferedImage(PAGE_WIDTH, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = page.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(color);
+        for (int i = 0; i < BakedGlyphs.COUNT; i++) {
+            if (glyphs.width[i] > 0) {
+                g.drawGlyphVector(vectors[i], glyphs.x[i] - bounds[i].x, glyphs.y[i] - bounds[i].y);
+            }
+        }
+        g.dispose();
+        bakes++;
+        return new Baked(glyphs, page);
+    }
+
+    /**
+     * Write a metrics file.
+     *
+     * @param file the file
+     * @param stamp what the font was baked from
+     * @param glyphs the metrics
+     * @throws IOException if the file can not be written
+     */
+    void write(File file, long stamp, BakedGlyphs glyphs) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(FILE_SIZE);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(stamp);
+        out.writeInt(glyphs.lineHeight);
+        for (int i = 0; i < BakedGlyphs.COUNT; i++) {
+            out.writeInt(glyphs.x[i]);
+            out.writeInt(glyphs.y[i]);
+            out.writeInt(glyphs.width[i]);
+            out.writeInt(glyphs.height[i]);
+            out.writeInt(glyphs.xOffset[i]);
+            out.writeInt(glyphs.yOffset[i]);
+            out.writeInt(glyphs.advance[i]);
+        }
+        store(file, bytes.toByteArray());
+    }
+
+    /**
+     * Read a metrics file by mapping it to memory.
+     *
+     * @param file the file
+     * @param stamp what the font should have been baked from
+     * @return the metrics, or null if the file is missing, broken or stale
+     */
+    BakedGlyphs read(File file, long stamp) {
+        if (file.length() != FILE_SIZE) {
+            return null;
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            MappedByteBuffer data = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+            if (data.getInt() != MAGIC || data.getInt() != VERSION || data.getLong() != stamp) {
+                return null;
+            }
+            BakedGlyphs glyphs = new BakedGlyphs(data.getInt());
+            for (int i = 0; i < BakedGlyphs.COUNT; i++) {
+                glyphs.x[i] = data.getInt();
+                glyphs.y[i] = data.getInt();
+                glyphs.width[i] = data.getInt();
+                glyphs.height[i] = data.getInt();
+                glyphs.xOffset[i] = data.getInt();
+                glyphs.yOffset[i] = data.getInt();
+                glyphs.advance[i] = data.getInt();
+            }
+            return glyphs;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write a file through a temporary file, so that a half written file
+     * is never read.
+     *
+     * @param file the file
+     * @param contents what to write
+     * @throws IOException if the file can not be written
+     */
+    private void store(File file, byte[] contents) throws IOException {
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Can not create " + parent);
+        }
+        File temporary = new File(parent, file.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temporary)) {
+            out.write(contents);
+        }
+        if (file.exists() && !file.delete() || !temporary.renameTo(file)) {
+            temporary.delete();
+            throw new IOException("Can not write " + file);
+        }
+    }
+}
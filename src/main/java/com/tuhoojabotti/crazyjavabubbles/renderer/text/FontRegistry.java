@@ -0,0 +1,256 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.text;
+
+import com.tuhoojabotti.crazyjavabubbles.main.Util;
+import java.awt.FontFormatException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.newdawn.slick.Font;
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.UnicodeFont;
+import org.newdawn.slick.font.effects.ColorEffect;
+import org.newdawn.slick.font.effects.ConfigurableEffect;
+import org.newdawn.slick.font.effects.Effect;
+import org.newdawn.slick.util.ResourceLoader;
+
+/**
+ * Loads every font once. A font is known by its name, size and effects,
+ * and all text renderers asking for the same one share it and its glyphs.
+ * Effects are told apart by their class and settings, so two white
+ * {@link ColorEffect}s are the same effect.
+ * <p>
+ * Fonts with just a colour effect are baked once and kept in a
+ * {@link FontCache}, other fonts are rasterized on every start.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class FontRegistry {
+
+    /**
+     * The effects fonts get by default: plain white.
+     */
+    public static final List<Effect> WHITE = Collections.<Effect>singletonList(
+        new ColorEffect(java.awt.Color.WHITE));
+    /**
+     * The registry of the game.
+     */
+    private static final FontRegistry SHARED = new FontRegistry(
+        new FontCache(new File("cache", "fonts")));
+
+    /**
+     * Loaded fonts by name, size and effects.
+     */
+    private final Map<String, Font> fonts = new HashMap<>();
+    /**
+     * Typefaces read from the font files, by name.
+     */
+    private final Map<String, java.awt.Font> faces = new HashMap<>();
+    /**
+     * Contents of the font files, by name.
+     */
+    private final Map<String, byte[]> sources = new HashMap<>();
+    /**
+     * Baked fonts on disk, or null to always rasterize.
+     */
+    private final FontCache cache;
+    /**
+     * Number of fonts loaded.
+     */
+    private int loads;
+
+    /**
+     * Create a registry that does not keep fonts on disk.
+     */
+    public FontRegistry() {
+        this(null);
+    }
+
+    /**
+     * Create a registry.
+     *
+     * @param cache baked fonts on disk, or null to always rasterize
+     */
+    public FontRegistry(FontCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @return the registry of the game
+     */
+    public static FontRegistry getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Get a white font.
+     *
+     * @param name name of the font file, without the extension
+     * @param size size of the font
+     * @return the font
+     */
+    public Font get(String name, int size) {
+        return get(name, size, WHITE);
+    }
+
+    /**
+     * Get a font, loading it if it is not loaded yet.
+     *
+     * @param name name of the font file, without the extension
+     * @param size size of the font
+     * @param effects effects of the font
+     * @return the font
+     */
+    public synchronized Font get(String name, int size, List<Effect> effects) {
+        String key = key(name, size, effects);
+        Font font = fonts.get(key);
+        if (font == null) {
+            font = load(name, size, effects);
+            loads++;
+            fonts.put(key, font);
+        }
+        return font;
+    }
+
+    /**
+     * @return number of fonts loaded so far
+     */
+    public synchronized int getLoads() {
+        return loads;
+    }
+
+    /**
+     * Describe a font so that equal fonts get the same key.
+     *
+     * @param name name of the font
+     * @param size size of the font
+     * @param effects effects of the font
+     * @return the key
+     */
+    static String key(String name, int size, List<Effect> effects) {
+        StringBuilder key = new StringBuilder(name).append(':').append(size);
+        for (Effect effect : effects) {
+            key.append(':').append(effect.getClass().getName());
+            if (effect instanceof ConfigurableEffect) {
+                // Slick returns a raw list of values.
+                @SuppressWarnings("unchecked")
+                List<ConfigurableEffect.Value> values = ((ConfigurableEffect) effect).getValues();
+                for (ConfigurableEffect.Value value : values) {
+                    key.append(',').append(value.getName()).append('=').append(value.getString());
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Load a font and its ASCII glyphs, from the cache if it can be baked.
+     * Needs a display.
+     *
+     * @param name name of the font file, without the extension
+     * @param size size of the font
+     * @param effects effects of the font
+     * @return the font
+     */
+    @SuppressWarnings("unchecked")
+    protected Font load(String name, int size, List<Effect> effects) {
+        byte[] source = getSource(name);
+        if (cache != null && source != null && effects.size() == 1
+                && effects.get(0) instanceof ColorEffect) {
+            try {
+                return cache.load(name + "-" + size, key(name, size, effects), source,
+                    getFace(name).deriveFont((float) size),
+                    ((ColorEffect) effects.get(0)).getColor());
+            } catch (IOException | SlickException | RuntimeException e) {
+                // Rasterize it the slow way instead.
+            }
+        }
+        UnicodeFont font = new UnicodeFont(getFace(name).deriveFont((float) size),
+            size, false, false);
+        font.addAsciiGlyphs();
+        font.getEffects().addAll(effects);
+        try {
+            font.loadGlyphs();
+        } catch (SlickException e) {
+            Util.fatalError("Failed to initialize font.", FontRegistry.class, e);
+        }
+        return font;
+    }
+
+    /**
+     * Read a typeface from its file, or use Arial if it can not be read.
+     *
+     * @param name name of the font file, without the extension
+     * @return the typeface
+     */
+    private java.awt.Font getFace(String name) {
+        java.awt.Font face = faces.get(name);
+        if (face == null) {
+            try {
+                byte[] source = getSource(name);
+                if (source == null) {
+                    throw new IOException("Missing font " + name);
+                }
+                face = java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT,
+                    new ByteArrayInputStream(source));
+            } catch (FontFormatException | IOException | RuntimeException e) {
+                face = new java.awt.Font("Arial", java.awt.Font.PLAIN, 1);
+            }
+            faces.put(name, face);
+        }
+        return face;
+    }
+
+    /**
+     * Read a font file.
+     *
+     * @param name name of the font file, without the extension
+     * @return contents of the file, or null if it can not be read
+     */
+    private byte[] getSource(String name) {
+        if (!sources.containsKey(name)) {
+            byte[] source = null;
+            try (InputStream in = ResourceLoader.getResourceAsStream(
+                    "fonts/" + name + ".ttf")) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                for (int n; (n = in.read(buffer)) != -1;) {
+                    bytes.write(buffer, 0, n);
+                }
+                source = bytes.toByteArray();
+            } catch (IOException | RuntimeException e) {
+                // Use the fallback typeface.
+            }
+            sources.put(name, source);
+        }
+        return sources.get(name);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.text;
+
+/**
+ * A line of HUD text that shows a number, like "time: 42". The number is
+ * written into a reused buffer and the text is only rebuilt when the
+ * number changes, so drawing the same value every frame makes no garbage.
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class HudLine {
+
+    /**
+     * Longest number: sign, ten digits and a decimal point.
+     */
+    private static final int MAX_DIGITS = 12;
+
+    /**
+     * Characters of the line.
+     */
+    private final char[] buffer;
+    /**
+     * Text before the number.
+     */
+    private final int prefixLength;
+    /**
+     * Text after the number.
+     */
+    private final String suffix;
+    /**
+     * Number of digits after the decimal point.
+     */
+    private final int decimals;
+    /**
+     * The number shown.
+     */
+    private int value;
+    /**
+     * The line as text, or null until a number is set.
+     */
+    private String text;
+    /**
+     * Number of times the text was rebuilt.
+     */
+    private int rebuilds;
+
+    /**
+     * Create a line for whole numbers.
+     *
+     * @param prefix text before the number
+     */
+    public HudLine(String prefix) {
+        this(prefix, 0, "");
+    }
+
+    /**
+     * Create a line for fixed point numbers.
+     *
+     * @param prefix text before the number
+     * @param decimals number of digits after the decimal point
+     * @param suffix text after the number
+     */
+    public HudLine(String prefix, int decimals, String suffix) {
+        if (decimals < 0 || decimals > 9) {
+            throw new IllegalArgumentException("Bad number of decimals: " + decimals);
+        }
+        prefixLength = prefix.length();
+        this.suffix = suffix;
+        this.decimals = decimals;
+        buffer = new char[prefixLength + MAX_DIGITS + suffix.length()];
+        prefix.getChars(0, prefixLength, buffer, 0);
+    }
+
+    /**
+     * Show a number. With decimals the number is in the smallest unit, so
+     * 1234 with two decimals is shown as 12.34.
+     *
+     * @param value the number
+     * @return true if the text changed
+     */
+    public boolean set(int value) {
+        if (text != null && value == this.value) {
+            return false;
+        }
+        this.value = value;
+        int end = format(value, decimals, buffer, prefixLength);
+        suffix.getChars(0, suffix.length(), buffer, end);
+        text = new String(buffer, 0, end + suffix.length());
+        rebuilds++;
+        return true;
+    }
+
+    /**
+     * @return the line as text, or null until a number is set
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return number of times the text was rebuilt
+     */
+    public int getRebuilds() {
+        return rebuilds;
+    }
+
+    /**
+     * Write a number without making any objects.
+     *
+     * @param value the number, in the smallest unit
+     * @param decimals number of digits after the decimal point
+     * @param out where to write
+     * @param offset where to start writing
+     * @return index after the last character written
+     */
+    static int format(int value, int decimals, char[] out, int offset) {
+        long left = Math.abs((long) value);
+        // Digits are written backwards from the end of the number.
+        int digits = 1;
+        for (long rest = left / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        digits = Math.max(digits, decimals + 1);
+        int end = offset + (value < 0 ? 1 : 0) + digits + (decimals > 0 ? 1 : 0),
+            i = end;
+        for (int d = 0; d < digits; d++) {
+            if (d == decimals && decimals > 0) {
+                out[--i] = '.';
+            }
+            out[--i] = (char) ('0' + left % 10);
+            left /= 10;
+        }
+        if (value < 0) {
+            out[--i] = '-';
+        }
+        return end;
+    }
+}
@@ -24,6 +24,9 @@
 package com.tuhoojabotti.crazyjavabubbles.renderer.text;
 
 import com.tuhoojabotti.crazyjavabubbles.main.Settings;
+import com.tuhoojabotti.crazyjavabubbles.renderer.FixedStep;
+import com.tuhoojabotti.crazyjavabubbles.renderer.ImpulseField;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RenderTarget;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
@@ -82,31 +85,27 @@ public class TextParticleRenderer {
         }
 
         /**
-         * Update the particle's location. The particle dies when it drops below
+         * Move the particle one step. The particle dies when it drops below
          * the screen border.
          *
          * @param gc game container
-         * @param delta delta time
          * @return whether the particle is dead or not
          */
-        public boolean update(GameContainer gc, int delta) {
+        public boolean step(GameContainer gc) {
             velocity.add(gravity);
             this.add(velocity);
             return y > gc.getHeight();
         }
 
         /**
-         * Apply force to the particle.
+         * Push the particle away from an explosion.
          *
-         * @param point point of origin
+         * @param field the explosion
          */
-        private void applyForce(Vector2f point) {
-            double angle = Math.atan2(point.y - this.y,
-                point.x - this.x);
-            float distance = Math.max(30, point.distance(this));
-
-            velocity.x -= 50 / distance * (float) Math.cos(angle);
-            velocity.y -= 100 / distance * (float) Math.sin(angle);
+        private void applyImpulse(ImpulseField field) {
+            field.push(x, y, 30, push);
+            velocity.x += 50 * push[0];
+            velocity.y += 100 * push[1];
         }
     }
 
@@ -122,13 +121,23 @@ public class TextParticleRenderer {
      * A random generator.
      */
     private Random rand;
+    /**
+     * Push of an explosion on one particle.
+     */
+    private final float[] push = new float[2];
+    /**
+     * Splits frames into steps.
+     */
+    private final FixedStep timer = new FixedStep(Settings.PHYSICS_STEP, 8);
 
     /**
      * Create a new text particle renderer.
+     *
+     * @param target where to draw
      */
-    public TextParticleRenderer() {
+    public TextParticleRenderer(RenderTarget target) {
         rand = new Random();
-        font = new TextRenderer("goodtimes.regular", 20);
+        font = new TextRenderer(target, "goodtimes.regular", 20);
         particles = new HashSet<>();
     }
 
@@ -143,7 +152,7 @@ public class TextParticleRenderer {
         for (int i = 0; i < text.length(); i++) {
             String c = "" + text.charAt(i);
 
-            pos.add(new Vector2f(font.font.getWidth(c), 0));
+            pos.add(new Vector2f(font.getFont().getWidth(c), 0));
             // Add some randomness to the velocity.
             Vector2f vel = new Vector2f(rand.nextFloat() * 0.2f - 0.1f,
                 -4 - rand.nextFloat() * 0.5f - mul);
@@ -153,13 +162,13 @@ public class TextParticleRenderer {
     }
 
     /**
-     * Apply force to all particles.
+     * Push all particles away from an explosion.
      *
-     * @param point point of origin
+     * @param field the explosion
      */
-    public void applyForce(Vector2f point) {
+    public void applyImpulse(ImpulseField field) {
         for (TextParticle scoreParticle : particles) {
-            scoreParticle.applyForce(point);
+            scoreParticle.applyImpulse(field);
         }
     }
 
@@ -186,9 +195,11 @@ public class TextParticleRenderer {
             return;
         }
         HashSet<TextParticle> dead = new HashSet<>();
-        for (TextParticle scoreParticle : particles) {
-            if (scoreParticle.update(gc, delta)) {
-                dead.add(scoreParticle);
+        for (int steps = timer.advance(delta); steps > 0; steps--) {
+            for (TextParticle scoreParticle : particles) {
+                if (scoreParticle.step(gc)) {
+                    dead.add(scoreParticle);
+                }
             }
         }
         particles.removeAll(dead);
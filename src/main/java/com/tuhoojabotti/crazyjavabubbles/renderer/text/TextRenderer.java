@@ -23,7 +23,9 @@
  */
 package com.tuhoojabotti.crazyjavabubbles.renderer.text;
 
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RenderTarget;
 import org.newdawn.slick.Color;
+import org.newdawn.slick.Font;
 import org.newdawn.slick.geom.Vector2f;
 
 /**
@@ -36,11 +38,22 @@ public class TextRenderer extends AbstractTextRenderer {
     /**
      * Create a new text renderer.
      *
+     * @param target where to draw
      * @param fontName font to use
      * @param size size of the font
      */
-    public TextRenderer(String fontName, int size) {
-        super(fontName, size);
+    public TextRenderer(RenderTarget target, String fontName, int size) {
+        super(target, fontName, size);
+    }
+
+    /**
+     * Create a new text renderer with a loaded font.
+     *
+     * @param target where to draw
+     * @param font the font
+     */
+    public TextRenderer(RenderTarget target, Font font) {
+        super(target, font);
     }
 
     /**
@@ -64,6 +77,6 @@ public class TextRenderer extends AbstractTextRenderer {
      */
     public void render(int x, int y, String text, Color color) {
         Vector2f position = calculateAlignment(x, y, text);
-        font.drawString(position.x, position.y, text, color);
+        target.drawString(font, position.x, position.y, text, color);
     }
 }
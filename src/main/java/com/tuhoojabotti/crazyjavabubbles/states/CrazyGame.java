@@ -23,6 +23,9 @@
  */
 package com.tuhoojabotti.crazyjavabubbles.states;
 
+import com.tuhoojabotti.crazyjavabubbles.engine.BoardPool;
+import com.tuhoojabotti.crazyjavabubbles.engine.HintEngine;
+import com.tuhoojabotti.crazyjavabubbles.engine.HintSearch;
 import com.tuhoojabotti.crazyjavabubbles.main.Game;
 import com.tuhoojabotti.crazyjavabubbles.main.Settings;
 import com.tuhoojabotti.crazyjavabubbles.logic.Bubble;
@@ -30,11 +33,14 @@ import com.tuhoojabotti.crazyjavabubbles.logic.CrazyGameLogic;
 import com.tuhoojabotti.crazyjavabubbles.main.Util;
 import com.tuhoojabotti.crazyjavabubbles.renderer.CrazyGameRenderer;
 import com.tuhoojabotti.crazyjavabubbles.renderer.GameOverPanelRenderer;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RenderTarget;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.SlickRenderTarget;
 import java.io.IOException;
 import java.util.Set;
 import org.newdawn.slick.Color;
 import org.newdawn.slick.GameContainer;
 import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Input;
 import org.newdawn.slick.SlickException;
 import org.newdawn.slick.openal.Audio;
 import org.newdawn.slick.openal.AudioLoader;
@@ -71,6 +77,19 @@ public class CrazyGame extends StateWrapper {
     private GameOverPanelRenderer gameOver;
     private boolean newGame;
 
+    /**
+     * Random boards generated in the background.
+     */
+    private BoardPool boards;
+    /**
+     * Searches hints when H is pressed.
+     */
+    private HintEngine hints;
+    /**
+     * The running hint search or null.
+     */
+    private HintSearch hint;
+
     /**
      * Create a new game.
      *
@@ -82,7 +101,16 @@ public class CrazyGame extends StateWrapper {
 
     @Override
     public void init(GameContainer gc, StateBasedGame sbg) {
-        logic = new CrazyGameLogic();
+        try {
+            int w = (int) Settings.get("board_width"),
+                h = (int) Settings.get("board_height"),
+                colors = (int) Settings.get("bubble_colors");
+            logic = new CrazyGameLogic(w, h, colors);
+            boards = new BoardPool(w, h, colors, 2);
+            hints = new HintEngine();
+        } catch (IllegalArgumentException e) {
+            Util.fatalError("Invalid board settings, " + e.getMessage(), this.getClass(), e);
+        }
 
         if (Settings.is("sound_on")) {
             try {
@@ -96,10 +124,17 @@ public class CrazyGame extends StateWrapper {
 
     @Override
     public void enter(GameContainer gc, StateBasedGame game) {
-        gameOver = new GameOverPanelRenderer(gc, gc.getGraphics(), logic);
+        RenderTarget target = new SlickRenderTarget(gc.getGraphics());
+        gameOver = new GameOverPanelRenderer(gc, target, logic);
         newGame = false;
-        logic.init();
-        renderer = new CrazyGameRenderer(logic, gc.getGraphics(), gc, getMousePosition());
+        cancelHint();
+        logic.init(boards.take());
+        renderer = new CrazyGameRenderer(logic, target, gc, getMousePosition());
+    }
+
+    @Override
+    public void leave(GameContainer gc, StateBasedGame game) {
+        renderer.stop();
     }
 
     @Override
@@ -117,6 +152,11 @@ public class CrazyGame extends StateWrapper {
         renderer.update(delta);
         logic.updateSelection(getMousePosition());
 
+        if (hint != null && hint.isDone()) {
+            logic.showHint(hint.getBest());
+            hint = null;
+        }
+
         if (logic.isGameOver()) {
             gameOver.update();
             if (newGame) {
@@ -125,6 +165,41 @@ public class CrazyGame extends StateWrapper {
         }
     }
 
+    @Override
+    public void keyPressed(int key, char c) {
+        super.keyPressed(key, c);
+        if (logic.isGameOver()) {
+            return;
+        }
+        switch (key) {
+            case Input.KEY_H:
+                cancelHint();
+                hint = hints.search(logic.getEngine(), (int) Settings.get("hint_budget"));
+                break;
+            case Input.KEY_Z:
+                cancelHint();
+                logic.undo();
+                break;
+            case Input.KEY_Y:
+                cancelHint();
+                Set<Bubble> bubbles = logic.redo();
+                if (bubbles != null) {
+                    renderer.explode(bubbles);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Stop the running hint search, if any.
+     */
+    private void cancelHint() {
+        if (hint != null) {
+            hint.cancel();
+            hint = null;
+        }
+    }
+
     @Override
     public void mouseReleased(int button, int x, int y) {
         if (button == 0 && !logic.isGameOver()) {
@@ -136,6 +211,8 @@ public class CrazyGame extends StateWrapper {
                     blimSound.playAsSoundEffect((float) Math.sqrt(bubbles.size())
                         / 2.0f, (int) Settings.get("sound_volume") / 100f, false);
                 }
+                // The hint was for the old board.
+                cancelHint();
                 // Force update of selection.
                 logic.forceUpdateSelection(getMousePosition());
                 renderer.explode(bubbles);
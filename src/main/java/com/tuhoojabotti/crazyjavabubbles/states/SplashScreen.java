@@ -27,12 +27,15 @@ import com.tuhoojabotti.crazyjavabubbles.main.Game;
 import static com.tuhoojabotti.crazyjavabubbles.main.Util.curveValue;
 import com.tuhoojabotti.crazyjavabubbles.renderer.text.TextRenderer;
 import com.tuhoojabotti.crazyjavabubbles.logic.Bubble;
+import com.tuhoojabotti.crazyjavabubbles.renderer.BubblePhysics;
 import com.tuhoojabotti.crazyjavabubbles.renderer.BubbleRenderer;
+import com.tuhoojabotti.crazyjavabubbles.renderer.BubbleSimulation;
+import com.tuhoojabotti.crazyjavabubbles.renderer.FixedStep;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RenderTarget;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.SlickRenderTarget;
 import com.tuhoojabotti.crazyjavabubbles.main.Settings;
 import com.tuhoojabotti.crazyjavabubbles.renderer.text.BeatTextRenderer;
-import java.util.HashSet;
 import java.util.Random;
-import java.util.Set;
 import org.newdawn.slick.GameContainer;
 import org.newdawn.slick.Graphics;
 import org.newdawn.slick.SlickException;
@@ -46,9 +49,11 @@ import org.newdawn.slick.state.StateBasedGame;
  */
 public class SplashScreen extends StateWrapper {
 
+    private RenderTarget target;
     // For the background.
-    private Set<BubbleRenderer> bubbleRenderers;
-    private Set<Bubble> bubbles;
+    private BubblePhysics physics;
+    private BubbleSimulation simulation;
+    private BubbleRenderer bubbleRenderer;
     private Vector2f mousePosition;
     // For the texts.
     private BeatTextRenderer titleText;
@@ -56,6 +61,7 @@ public class SplashScreen extends StateWrapper {
     private BeatTextRenderer greetingText;
     private Vector2f titlePos;
     private Vector2f authorPos;
+    private final FixedStep textTimer = new FixedStep(Settings.PHYSICS_STEP, 8);
 
     private final String[] greetings = new String[]{
         "<3 y'all",
@@ -80,11 +86,14 @@ public class SplashScreen extends StateWrapper {
 
     @Override
     public void init(GameContainer gc, StateBasedGame sbg) {
-        bubbleRenderers = new HashSet<>();
-        bubbles = new HashSet<>();
+        physics = new BubblePhysics(1024);
+        target = new SlickRenderTarget(gc.getGraphics());
+        bubbleRenderer = new BubbleRenderer(target);
+        physics.setBoardLocation(-Settings.BUBBLE_RADIUS / 2, -Settings.BUBBLE_RADIUS / 2);
+        simulation = new BubbleSimulation(physics);
         mousePosition = new Vector2f();
 
-        createBackground(gc.getWidth(), gc.getHeight(), gc.getGraphics());
+        createBackground(gc.getWidth(), gc.getHeight());
         createTexts();
     }
 
@@ -92,8 +101,8 @@ public class SplashScreen extends StateWrapper {
      * Create the texts used in the splash screen.
      */
     private void createTexts() {
-        titleText = new BeatTextRenderer("sweet-as-candy.regular", 60, "Crazy Bubbles");
-        authorText = new BeatTextRenderer("goodtimes.regular", 28, "by Ville 'Tuhis' Lahdenvuo", 15);
+        titleText = new BeatTextRenderer(target, "sweet-as-candy.regular", 60, "Crazy Bubbles");
+        authorText = new BeatTextRenderer(target, "goodtimes.regular", 28, "by Ville 'Tuhis' Lahdenvuo", 15);
         titleText.setHorizontalAlign(TextRenderer.Align.CENTER);
         authorText.setHorizontalAlign(TextRenderer.Align.CENTER);
     }
@@ -102,16 +111,14 @@ public class SplashScreen extends StateWrapper {
      * Create the Bubble-filled background.
      * @param w width of the viewport
      * @param h height of the viewport
-     * @param gfx graphics object
      */
-    private void createBackground(int w, int h, Graphics gfx) {
+    private void createBackground(int w, int h) {
         for (int y = 0; y <= h / Settings.BUBBLE_RADIUS + 1; y++) {
             for (int x = 0; x < w / Settings.BUBBLE_RADIUS + 1; x++) {
                 if ((y < 8 || y > 10) && (y < 1 || y > 4 || x < 2 || x > 23)) {
                     Bubble b = new Bubble(x, y);
                     b.setSelected(true);
-                    bubbles.add(b);
-                    bubbleRenderers.add(new BubbleRenderer(b, gfx, mousePosition));
+                    physics.add(b);
                 }
             }
         }
@@ -123,15 +130,19 @@ public class SplashScreen extends StateWrapper {
         setExitRequested(false);
         titlePos = new Vector2f(gc.getWidth() / 2, -200);
         authorPos = new Vector2f(-400, gc.getHeight() / 2 - 46);
-        greetingText = new BeatTextRenderer("goodtimes.regular", 26, greetings[rand.nextInt(greetings.length)], 15);
+        greetingText = new BeatTextRenderer(target, "goodtimes.regular", 26, greetings[rand.nextInt(greetings.length)], 15);
         greetingText.setHorizontalAlign(TextRenderer.Align.CENTER);
+        simulation.start();
+    }
+
+    @Override
+    public void leave(GameContainer gc, StateBasedGame game) {
+        simulation.stop();
     }
 
     @Override
     public void render(GameContainer gc, StateBasedGame game, Graphics gfx) {
-        for (BubbleRenderer renderer : bubbleRenderers) {
-            renderer.render(-Settings.BUBBLE_RADIUS / 2, -Settings.BUBBLE_RADIUS / 2);
-        }
+        bubbleRenderer.render(simulation.getFrame());
 
         titleText.render((int) titlePos.x, (int) titlePos.y);
         authorText.render((int) authorPos.x, (int) authorPos.y);
@@ -144,12 +155,12 @@ public class SplashScreen extends StateWrapper {
             game.enterState(Game.GAME);
         }
 
-        for (BubbleRenderer renderer : bubbleRenderers) {
-            renderer.update(gameContainer, delta);
-        }
+        simulation.setMouse(mousePosition.x, mousePosition.y);
 
         updateFakeMouse(gameContainer);
-        updateTexts(gameContainer);
+        for (int steps = textTimer.advance(delta); steps > 0; steps--) {
+            updateTexts(gameContainer);
+        }
     }
 
     @Override
@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BoardPoolTest {
+
+    private BoardPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new BoardPool(24, 17, 4, 2);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void poolFillsInBackground() throws InterruptedException {
+        for (int i = 0; i < 100 && pool.size() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void takenBoardsArePlayable() {
+        for (int i = 0; i < 10; i++) {
+            Grid grid = pool.take();
+            assertEquals(24, grid.getWidth());
+            assertEquals(17, grid.getHeight());
+            assertTrue(grid.hasMoreMoves());
+        }
+    }
+
+    @Test
+    public void boardsAreDifferent() {
+        assertTrue(pool.take() != pool.take());
+    }
+
+    @Test
+    public void engineStartsOnTakenBoard() {
+        GameEngine engine = new GameEngine(24, 17, 4);
+        Grid grid = pool.take();
+        engine.init(grid);
+        assertSame(grid, engine.getGrid());
+        assertFalse(engine.isGameOver());
+        assertEquals(0, engine.getScore());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void badSizeFailsRightAway() {
+        new BoardPool(0, 17, 4, 2);
+    }
+}
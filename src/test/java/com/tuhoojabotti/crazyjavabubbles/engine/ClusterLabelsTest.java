@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class ClusterLabelsTest {
+
+    private ClusterLabels labels;
+
+    @Before
+    public void setUp() {
+        labels = new ClusterLabels(4 * 3);
+        labels.update(new byte[]{
+            1, 1, 2, 0,
+            3, 1, 2, 2,
+            3, 3, 1, 2
+        }, 4);
+    }
+
+    private int sizeAt(ClusterLabels l, int cell) {
+        return l.getSize(l.getLabel(cell));
+    }
+
+    @Test
+    public void countsClusters() {
+        assertEquals(4, labels.getCount());
+        assertEquals(3, labels.getPoppableCount());
+    }
+
+    @Test
+    public void sameClusterHasSameLabel() {
+        assertEquals(labels.getLabel(0), labels.getLabel(1));
+        assertEquals(labels.getLabel(0), labels.getLabel(5));
+        assertEquals(labels.getLabel(4), labels.getLabel(9));
+        assertTrue(labels.getLabel(5) != labels.getLabel(10));
+        assertEquals(ClusterLabels.NONE, labels.getLabel(3));
+    }
+
+    @Test
+    public void cellsAreLinkedToTheirCluster() {
+        int total = 0;
+        for (int label = 0; label < labels.getLabelCount(); label++) {
+            int size = 0;
+            for (int cell = labels.getFirst(label); cell != ClusterLabels.NONE;
+                cell = labels.getNext(cell)) {
+                assertEquals(label, labels.getLabel(cell));
+                size++;
+            }
+            assertEquals(labels.getSize(label), size);
+            total += size;
+        }
+        assertEquals(11, total);
+        assertEquals(1, sizeAt(labels, 10));
+    }
+
+    @Test
+    public void updatingChangedColumnsMatchesFullUpdate() {
+        Random rand = new Random(42);
+        int w = 12, h = 9;
+        byte[] cells = new byte[w * h];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (byte) (1 + rand.nextInt(3));
+        }
+        ClusterLabels partial = new ClusterLabels(cells.length),
+            full = new ClusterLabels(cells.length);
+        partial.update(cells, w);
+        Gravity gravity = new Gravity(4);
+
+        for (int round = 0; round < 20; round++) {
+            // Remove a random cluster like a pop does.
+            int label = ClusterLabels.NONE;
+            for (int tries = 0; tries < 1000 && (label == ClusterLabels.NONE
+                || partial.getSize(label) < 2); tries++) {
+                label = partial.getLabel(rand.nextInt(cells.length));
+            }
+            if (label == ClusterLabels.NONE || partial.getSize(label) < 2) {
+                break;
+            }
+            int first = w, last = 0;
+            for (int cell = partial.getFirst(label); cell != ClusterLabels.NONE;
+                cell = partial.getNext(cell)) {
+                cells[cell] = 0;
+                first = Math.min(first, cell % w);
+                last = Math.max(last, cell % w);
+            }
+            gravity.apply(cells, w, h, first, last);
+            partial.update(cells, w, first, gravity.getLastColumn());
+            full.update(cells, w);
+
+            assertEquals(full.getCount(), partial.getCount());
+            assertEquals(full.getPoppableCount(), partial.getPoppableCount());
+            for (int a = 0; a < cells.length; a++) {
+                if (cells[a] == 0) {
+                    assertEquals(ClusterLabels.NONE, partial.getLabel(a));
+                    continue;
+                }
+                assertEquals(sizeAt(full, a), sizeAt(partial, a));
+                if (a % w + 1 < w) {
+                    assertEquals(full.getLabel(a) == full.getLabel(a + 1),
+                        partial.getLabel(a) == partial.getLabel(a + 1));
+                }
+                if (a + w < cells.length) {
+                    assertEquals(full.getLabel(a) == full.getLabel(a + w),
+                        partial.getLabel(a) == partial.getLabel(a + w));
+                }
+            }
+        }
+    }
+}
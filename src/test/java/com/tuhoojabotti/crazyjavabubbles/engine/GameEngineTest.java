@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class GameEngineTest {
+
+    private GameEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = new GameEngine(24, 17, 4);
+        engine.init();
+    }
+
+    @Test
+    public void listedMovesCanBeSelected() {
+        List<Move> moves = engine.listMoves();
+        assertFalse(moves.isEmpty());
+        for (Move move : moves) {
+            engine.select(move.getX(), move.getY());
+            assertEquals(move.getSize(), engine.getGrid().getSelectionSize());
+            assertEquals(move.getColor(), engine.getGrid().get(move.getX(), move.getY()));
+        }
+    }
+
+    @Test
+    public void gameCanBePlayedWithoutDisplay() {
+        int score = 0, popped = 0;
+        while (!engine.isGameOver()) {
+            Move move = engine.listMoves().get(0);
+            engine.select(move.getX(), move.getY());
+            assertEquals(move.getSize(), engine.pop());
+            score += engine.calculateScore(move.getSize());
+            popped += move.getSize();
+        }
+        assertTrue(engine.listMoves().isEmpty());
+        assertEquals(score, engine.getScore());
+        assertEquals(popped, engine.getBubblesPopped());
+        assertTrue(engine.getBiggestCluster() >= 2);
+    }
+
+    @Test
+    public void virtualTimeGivesTheTimeBonus() {
+        VirtualClock clock = new VirtualClock(123456);
+        GameEngine game = new GameEngine(24, 17, 4, clock);
+        game.init(2014);
+        while (!game.isGameOver()) {
+            clock.advance(500);
+            Move move = game.listMoves().get(0);
+            game.select(move.getX(), move.getY());
+            game.pop();
+        }
+        int time = (int) (game.getReplay().getCount() * 500 / 1000);
+        assertEquals(time, game.getTime());
+        assertEquals((int) Math.pow(time, 3), game.getTimeBonus());
+        assertEquals(game.getScore() + game.getBiggestClusterBonus() - game.getTimeBonus(),
+            game.getTotalScore());
+        clock.advance(60000);
+        assertEquals(time, game.getTime());
+    }
+
+    @Test
+    public void timeRunsWhileThereAreMoves() {
+        VirtualClock clock = new VirtualClock();
+        GameEngine game = new GameEngine(24, 17, 4, clock);
+        game.init(2014);
+        clock.advance(2500);
+        assertFalse(game.isGameOver());
+        assertEquals(2, game.getTime());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void virtualTimeDoesNotGoBack() {
+        new VirtualClock().advance(-1);
+    }
+
+    @Test
+    public void popWithoutSelectionDoesNothing() {
+        engine.select(-1, -1);
+        assertEquals(0, engine.pop());
+        assertEquals(0, engine.getScore());
+    }
+
+    @Test
+    public void calculateScoreWorks() {
+        assertEquals(400, engine.calculateScore(2));
+        assertEquals(900, engine.calculateScore(3));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class GravityTest {
+
+    private Gravity gravity;
+
+    @Before
+    public void setUp() {
+        gravity = new Gravity(2);
+    }
+
+    @Test
+    public void nothingMovesOnFullBoard() {
+        byte[] cells = new byte[]{
+            1, 2, 3,
+            3, 2, 1,
+            1, 1, 1
+        };
+        assertEquals(0, gravity.apply(cells, 3, 3));
+    }
+
+    @Test
+    public void dropsAndPacksInOnePass() {
+        byte[] cells = new byte[]{
+            1, 0, 3,
+            0, 0, 0,
+            2, 0, 4
+        };
+        assertEquals(3, gravity.apply(cells, 3, 3));
+        assertArrayEquals(new byte[]{
+            0, 0, 0,
+            1, 3, 0,
+            2, 4, 0
+        }, cells);
+    }
+
+    @Test
+    public void reportsWhereBubblesWent() {
+        byte[] cells = new byte[]{
+            0, 5, 6,
+            0, 0, 7,
+            0, 0, 8
+        };
+        byte[] before = cells.clone();
+        byte[] replayed = new byte[9];
+        int moves = gravity.apply(cells, 3, 3);
+
+        // Every bubble is reported once and lands on an empty cell.
+        System.arraycopy(before, 0, replayed, 0, 9);
+        for (int i = 0; i < moves; i++) {
+            assertEquals(0, replayed[gravity.getTo(i)]);
+            replayed[gravity.getTo(i)] = replayed[gravity.getFrom(i)];
+            replayed[gravity.getFrom(i)] = 0;
+        }
+        assertArrayEquals(cells, replayed);
+        assertEquals(4, moves);
+    }
+
+    @Test
+    public void tallBoardsDoNotOverflow() {
+        int height = 100000;
+        byte[] cells = new byte[height];
+        cells[0] = 1;
+        Gravity tall = new Gravity(1);
+        assertEquals(1, tall.apply(cells, 1, height));
+        assertEquals(0, tall.getFrom(0));
+        assertEquals(height - 1, tall.getTo(0));
+    }
+}
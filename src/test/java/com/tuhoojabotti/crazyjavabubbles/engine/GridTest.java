@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class GridTest {
+
+    private Grid grid;
+
+    @Before
+    public void setUp() {
+        grid = new Grid(3, 3, 3);
+        grid.setCells(new byte[]{
+            1, 2, 2,
+            1, 3, 2,
+            1, 3, 3
+        });
+    }
+
+    @Test
+    public void selectsClusters() {
+        assertTrue(grid.select(0, 0));
+        assertEquals(3, grid.getSelectionSize());
+        assertFalse(grid.select(0, 2));
+        assertTrue(grid.select(-1, 0));
+        assertEquals(0, grid.getSelectionSize());
+    }
+
+    @Test
+    public void popDropsTheRest() {
+        grid.select(1, 1);
+        assertEquals(3, grid.pop());
+        assertEquals(0, grid.get(1, 1));
+        assertEquals(2, grid.get(1, 2));
+        assertEquals(2, grid.get(2, 2));
+        assertEquals(0, grid.pop());
+    }
+
+    @Test
+    public void poppingAColumnPacksLeft() {
+        grid.select(0, 1);
+        assertEquals(3, grid.pop());
+        assertEquals(2, grid.get(0, 0));
+        assertEquals(0, grid.get(2, 2));
+    }
+
+    @Test
+    public void listsOneMovePerCluster() {
+        List<Move> moves = grid.listMoves();
+        assertEquals(3, moves.size());
+        for (Move move : moves) {
+            assertEquals(3, move.getSize());
+            assertEquals(move.getColor(), grid.get(move.getX(), move.getY()));
+        }
+    }
+
+    @Test
+    public void histogramCountsClusterSizes() {
+        assertArrayEquals(new int[]{0, 0, 0, 3}, grid.getSizeHistogram());
+        grid.select(1, 1);
+        grid.pop();
+        assertArrayEquals(new int[]{0, 0, 0, 2}, grid.getSizeHistogram());
+    }
+
+    @Test
+    public void sameSeedGivesSameBoard() {
+        Grid a = new Grid(6, 2, 4), b = new Grid(6, 2, 4);
+        a.randomize(2014);
+        b.randomize(2014);
+        byte[] expected = new byte[]{
+            1, 4, 4, 1, 1, 3,
+            1, 1, 2, 3, 1, 1
+        };
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], a.get(i % 6, i / 6));
+            assertEquals(expected[i], b.get(i % 6, i / 6));
+        }
+        assertEquals(2014, a.getSeed());
+    }
+
+    @Test
+    public void differentSeedsGiveDifferentBoards() {
+        Grid a = new Grid(24, 17, 4), b = new Grid(24, 17, 4);
+        a.randomize(1);
+        b.randomize(2);
+        int same = 0;
+        for (int y = 0; y < 17; y++) {
+            for (int x = 0; x < 24; x++) {
+                same += a.get(x, y) == b.get(x, y) ? 1 : 0;
+            }
+        }
+        assertTrue(same < 24 * 17 / 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooBigBoardIsRejected() {
+        new Grid(Grid.MAX_SIZE + 1, 1, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooTallBoardIsRejected() {
+        new Grid(1, Grid.MAX_SIZE + 1, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyColorsAreRejected() {
+        new Grid(4, 4, 128);
+    }
+
+    @Test
+    public void widestAndTallestBoardsWork() {
+        // A full MAX_SIZE x MAX_SIZE board takes hundreds of megabytes, so the
+        // limit is tested one side at a time.
+        playBottomRow(new Grid(Grid.MAX_SIZE, 2, 4));
+        playBottomRow(new Grid(2, Grid.MAX_SIZE, 4));
+    }
+
+    private static void playBottomRow(Grid big) {
+        int w = big.getWidth(), h = big.getHeight();
+        big.randomize();
+        assertTrue(big.hasMoreMoves());
+
+        int total = 0;
+        for (int i = 0; i < 5 && big.hasMoreMoves(); i++) {
+            for (int cell = w * h - 1; cell >= 0 && !big.select(cell % w, cell / w); cell--) {
+            }
+            total += big.pop();
+        }
+        assertTrue(total >= 2);
+
+        int left = 0;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                left += big.get(x, y) == Grid.EMPTY ? 0 : 1;
+            }
+        }
+        assertEquals(w * h - total, left);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class HintEngineTest {
+
+    private HintEngine hints;
+
+    @Before
+    public void setUp() {
+        hints = new HintEngine(new ForkJoinPool(2));
+    }
+
+    @After
+    public void tearDown() {
+        hints.shutdown();
+    }
+
+    @Test
+    public void findsTheMoveThatJoinsClusters() {
+        GameEngine game = new GameEngine(6, 1, 2);
+        game.getGrid().setCells(new byte[]{1, 1, 2, 2, 1, 1});
+        game.start();
+        Move best = hints.hint(game, 50);
+        assertEquals(2, best.getColor());
+    }
+
+    @Test
+    public void hintIsALegalMove() {
+        GameEngine game = new GameEngine(24, 17, 4);
+        game.init(2014);
+        Move best = hints.hint(game, 50);
+        assertTrue(isListed(best, game.listMoves()));
+    }
+
+    @Test
+    public void noMovesNoHint() {
+        GameEngine game = new GameEngine(3, 1, 2);
+        game.getGrid().setCells(new byte[]{1, 2, 1});
+        assertNull(hints.hint(game, 50));
+    }
+
+    @Test
+    public void gameCanBePlayedDuringSearch() {
+        GameEngine game = new GameEngine(24, 17, 4);
+        game.init(2014);
+        HintSearch search = hints.search(game, 1000);
+        Move move = game.listMoves().get(0);
+        game.select(move.getX(), move.getY());
+        game.pop();
+        search.cancel();
+        search.join();
+        assertTrue(isListed(move, search.getMoves()));
+    }
+
+    @Test
+    public void cancelStopsTheSearch() {
+        GameEngine game = new GameEngine(24, 17, 4);
+        game.init(2014);
+        long start = System.currentTimeMillis();
+        HintSearch search = hints.search(game, 10000);
+        search.cancel();
+        search.join();
+        assertTrue(search.isStopped());
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertNotNull(search.getBest());
+    }
+
+    @Test
+    public void budgetIsRespected() {
+        GameEngine game = new GameEngine(24, 17, 4);
+        game.init(2014);
+        long start = System.currentTimeMillis();
+        HintSearch search = hints.search(game, 50);
+        search.join();
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertTrue(search.getPlayouts() > 0);
+    }
+
+    @Test
+    public void playoutsRecordNothing() {
+        GameEngine game = new GameEngine(24, 17, 4);
+        game.init(2014);
+        HintSearch search = new HintSearch(game, 1, 1000, 1);
+        GameEngine scratch = HintSearch.createScratch(game.getGrid());
+        assertTrue(search.playout(scratch, 0, new SplitMix64(1)) > 0);
+        assertFalse(scratch.getHistory().canUndo());
+        assertEquals(0, scratch.getHistory().getSize());
+        assertEquals(0, scratch.getReplay().getCount());
+    }
+
+    private boolean isListed(Move move, List<Move> moves) {
+        for (Move m : moves) {
+            if (m.getX() == move.getX() && m.getY() == move.getY()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class ReplayTest {
+
+    private GameEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = new GameEngine(24, 17, 4);
+        engine.init(2014);
+    }
+
+    @Test
+    public void replayGivesTheSameGame() throws IOException {
+        playToTheEnd(engine);
+        Replay replay = readBack(engine.getReplay());
+        assertTrue(replay.isSeeded());
+        assertEquals(2014, replay.getSeed());
+
+        GameEngine copy = new GameEngine(24, 17, 4);
+        replay.play(copy);
+        assertEquals(engine.getScore(), copy.getScore());
+        assertEquals(engine.getBiggestCluster(), copy.getBiggestCluster());
+        assertEquals(engine.getBubblesPopped(), copy.getBubblesPopped());
+        assertTrue(copy.isGameOver());
+    }
+
+    @Test
+    public void replayIsSmall() {
+        int pops = playToTheEnd(engine);
+        assertTrue(engine.getReplay().toBytes().length <= 20 + pops * 4);
+    }
+
+    @Test
+    public void boardWithoutSeedIsStored() throws IOException {
+        GameEngine game = new GameEngine(6, 1, 2);
+        game.getGrid().setCells(new byte[]{1, 1, 2, 2, 1, 1});
+        game.start();
+        playToTheEnd(game);
+        Replay replay = readBack(game.getReplay());
+        assertFalse(replay.isSeeded());
+
+        GameEngine copy = new GameEngine(6, 1, 2);
+        replay.play(copy);
+        assertEquals(game.getScore(), copy.getScore());
+    }
+
+    @Test
+    public void undoneMovesAreNotInTheReplay() {
+        Move move = engine.listMoves().get(0);
+        engine.select(move.getX(), move.getY());
+        engine.pop();
+        assertEquals(1, engine.getReplay().getCount());
+        engine.undo();
+        assertEquals(0, engine.getReplay().getCount());
+        engine.redo();
+        assertEquals(1, engine.getReplay().getCount());
+    }
+
+    @Test
+    public void timesGrow() {
+        playToTheEnd(engine);
+        Replay replay = engine.getReplay();
+        for (int i = 1; i < replay.getCount(); i++) {
+            assertTrue(replay.getTime(i) >= replay.getTime(i - 1));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalPopIsFound() throws IOException {
+        Replay replay = new Replay();
+        Grid grid = new Grid(3, 1, 2);
+        grid.setCells(new byte[]{1, 2, 1});
+        replay.start(grid);
+        replay.add(1, 0, 0);
+        replay.play(new GameEngine(3, 1, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongSizeIsFound() {
+        playToTheEnd(engine);
+        engine.getReplay().play(new GameEngine(10, 10, 4));
+    }
+
+    @Test(expected = IOException.class)
+    public void garbageIsNotAReplay() throws IOException {
+        Replay.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}));
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedReplayFails() throws IOException {
+        playToTheEnd(engine);
+        byte[] bytes = engine.getReplay().toBytes();
+        Replay.read(new ByteArrayInputStream(bytes, 0, bytes.length - 1));
+    }
+
+    @Test(expected = IOException.class)
+    public void tooBigBoardIsRefused() throws IOException {
+        byte[] bytes = engine.getReplay().toBytes();
+        Replay.read(new ByteArrayInputStream(bytes), 24 * 17 - 1);
+    }
+
+    @Test
+    public void boardAtTheLimitIsRead() throws IOException {
+        byte[] bytes = engine.getReplay().toBytes();
+        assertEquals(24, Replay.read(new ByteArrayInputStream(bytes), 24 * 17).getWidth());
+    }
+
+    @Test
+    public void gameThatDoesNotRecordPlaysTheSame() {
+        playToTheEnd(engine);
+        GameEngine copy = new GameEngine(24, 17, 4);
+        copy.setRecording(false);
+        engine.getReplay().play(copy);
+        assertEquals(engine.getScore(), copy.getScore());
+        assertEquals(engine.getBubblesPopped(), copy.getBubblesPopped());
+        assertEquals(0, copy.getReplay().getCount());
+        assertFalse(copy.getHistory().canUndo());
+    }
+
+    @Test
+    public void copyThatDoesNotRecordKeepsNoReplay() {
+        GameEngine copy = new GameEngine(24, 17, 4);
+        copy.setRecording(false);
+        copy.copyFrom(engine);
+        assertEquals(0, copy.getReplay().getWidth());
+    }
+
+    private static Replay readBack(Replay replay) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        replay.write(out);
+        return Replay.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static int playToTheEnd(GameEngine game) {
+        int pops = 0;
+        List<Move> moves;
+        while (!(moves = game.listMoves()).isEmpty()) {
+            Move move = moves.get(moves.size() / 2);
+            game.select(move.getX(), move.getY());
+            game.pop();
+            pops++;
+        }
+        return pops;
+    }
+}
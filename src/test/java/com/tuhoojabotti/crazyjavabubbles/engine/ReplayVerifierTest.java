@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class ReplayVerifierTest {
+
+    private List<String> failures;
+    private ReplayVerifier verifier;
+
+    @Before
+    public void setUp() {
+        failures = Collections.synchronizedList(new ArrayList<String>());
+        verifier = new ReplayVerifier(2, new ReplayVerifier.Listener() {
+            @Override
+            public void mismatch(String source, long index, Submission claimed, GameEngine actual) {
+                failures.add("mismatch " + index);
+            }
+
+            @Override
+            public void invalid(String source, long index, String reason) {
+                failures.add("invalid " + index);
+            }
+        });
+    }
+
+    @Test
+    public void honestGamesPass() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int seed = 0; seed < 50; seed++) {
+            new Submission(playToTheEnd(seed)).write(out);
+        }
+        assertEquals(50, verifier.verify("test", new ByteArrayInputStream(out.toByteArray())));
+        verifier.await();
+        assertEquals(50, verifier.getChecked());
+        assertEquals(0, verifier.getMismatches());
+        assertEquals(0, verifier.getInvalid());
+        assertTrue(failures.isEmpty());
+        assertTrue(verifier.getGamesPerSecond() > 0);
+    }
+
+    @Test
+    public void wrongClaimsAreFound() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameEngine game = playToTheEnd(1);
+        new Submission(game).write(out);
+        new Submission(game.getTotalScore() + 1, game.getBiggestCluster(),
+            game.getBubblesPopped(), game.getReplay()).write(out);
+        new Submission(game.getTotalScore(), game.getBiggestCluster() + 1,
+            game.getBubblesPopped(), game.getReplay()).write(out);
+        verifier.verify("test", new ByteArrayInputStream(out.toByteArray()));
+        verifier.await();
+        assertEquals(2, verifier.getMismatches());
+        assertTrue(failures.contains("mismatch 1"));
+        assertTrue(failures.contains("mismatch 2"));
+    }
+
+    @Test
+    public void unfinishedAndIllegalGamesAreInvalid() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameEngine game = new GameEngine(24, 17, 4);
+        game.init(1);
+        new Submission(game).write(out);
+
+        Grid grid = new Grid(3, 1, 2);
+        grid.setCells(new byte[]{1, 2, 1});
+        Replay replay = new Replay();
+        replay.start(grid);
+        replay.add(1, 0, 0);
+        new Submission(0, 0, 0, replay).write(out);
+
+        verifier.verify("test", new ByteArrayInputStream(out.toByteArray()));
+        verifier.await();
+        assertEquals(2, verifier.getInvalid());
+        assertTrue(failures.contains("invalid 0"));
+        assertTrue(failures.contains("invalid 1"));
+    }
+
+    @Test
+    public void brokenStreamIsReported() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Submission(playToTheEnd(1)).write(out);
+        out.write(new byte[]{0, 0, 0, 'X'});
+        assertEquals(1, verifier.verify("test", new ByteArrayInputStream(out.toByteArray())));
+        verifier.await();
+        assertEquals(1, verifier.getChecked());
+        assertEquals(1, verifier.getInvalid());
+    }
+
+    @Test
+    public void directoriesAreRead() throws Exception {
+        File dir = File.createTempFile("replays", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        File sub = new File(dir, "sub");
+        assertTrue(sub.mkdir());
+        File[] files = {new File(dir, "a"), new File(sub, "b")};
+        for (int i = 0; i < files.length; i++) {
+            try (OutputStream out = new FileOutputStream(files[i])) {
+                new Submission(playToTheEnd(i)).write(out);
+                new Submission(playToTheEnd(i + 10)).write(out);
+            }
+        }
+        verifier.verifyFile(dir);
+        verifier.await();
+        assertEquals(4, verifier.getChecked());
+        assertTrue(failures.isEmpty());
+        files[0].delete();
+        files[1].delete();
+        sub.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void boardsOverTheLimitAreRefused() throws Exception {
+        ReplayVerifier small = new ReplayVerifier(1, 10 * 10, new ReplayVerifier.Listener() {
+            @Override
+            public void mismatch(String source, long index, Submission claimed, GameEngine actual) {
+                failures.add("mismatch " + index);
+            }
+
+            @Override
+            public void invalid(String source, long index, String reason) {
+                failures.add("invalid " + index);
+            }
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Submission(playToTheEnd(1)).write(out);
+        assertEquals(0, small.verify("test", new ByteArrayInputStream(out.toByteArray())));
+        small.await();
+        assertEquals(0, small.getChecked());
+        assertEquals(1, small.getInvalid());
+        assertTrue(failures.contains("invalid 0"));
+    }
+
+    @Test
+    public void negativeScoreSurvivesWriting() throws IOException {
+        GameEngine game = playToTheEnd(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Submission(-12345, 2, 4, game.getReplay()).write(out);
+        Submission read = Submission.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(-12345, read.getTotalScore());
+        assertEquals(2, read.getBiggestCluster());
+        assertEquals(4, read.getBubblesPopped());
+    }
+
+    private static GameEngine playToTheEnd(long seed) {
+        GameEngine game = new GameEngine(24, 17, 4);
+        game.init(seed);
+        List<Move> moves;
+        while (!(moves = game.listMoves()).isEmpty()) {
+            Move move = moves.get(moves.size() / 2);
+            game.select(move.getX(), move.getY());
+            game.pop();
+        }
+        return game;
+    }
+}
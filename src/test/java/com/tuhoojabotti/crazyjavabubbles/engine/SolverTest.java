@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class SolverTest {
+
+    @Test
+    public void findsTheMoveThatJoinsClusters() {
+        GameEngine game = new GameEngine(6, 1, 2);
+        game.getGrid().setCells(new byte[]{1, 1, 2, 2, 1, 1});
+        Solver solver = new Solver(10);
+        List<Move> moves = solver.solve(game);
+        assertEquals(2, moves.size());
+        assertEquals(2, moves.get(0).getColor());
+        assertEquals(400 + 1600 + 64, solver.getBestScore());
+    }
+
+    @Test
+    public void solutionGivesTheBestScore() {
+        GameEngine game = new GameEngine(5, 5, 3);
+        game.init(2014);
+        Solver solver = new Solver(16);
+        List<Move> moves = solver.solve(game);
+        for (Move move : moves) {
+            game.select(move.getX(), move.getY());
+            assertEquals(move.getSize(), game.pop());
+        }
+        assertEquals(solver.getBestScore(), game.getScore() + game.getBiggestClusterBonus());
+        assertTrue(game.listMoves().isEmpty());
+    }
+
+    @Test
+    public void tinyTableGivesTheSameScore() {
+        for (long seed = 0; seed < 10; seed++) {
+            GameEngine game = new GameEngine(4, 4, 3);
+            game.init(seed);
+            Solver big = new Solver(16), tiny = new Solver(1);
+            big.solve(game);
+            tiny.solve(game);
+            assertEquals(big.getBestScore(), tiny.getBestScore());
+            assertTrue(tiny.getNodes() >= big.getNodes());
+        }
+    }
+
+    @Test
+    public void noBetterRandomGame() {
+        GameEngine game = new GameEngine(5, 5, 3);
+        game.init(7);
+        Solver solver = new Solver(16);
+        solver.solve(game);
+        SplitMix64 random = new SplitMix64(7);
+        GameEngine copy = new GameEngine(5, 5, 3);
+        for (int i = 0; i < 200; i++) {
+            copy.copyFrom(game);
+            List<Move> moves;
+            while (!(moves = copy.listMoves()).isEmpty()) {
+                Move move = moves.get(random.nextInt(moves.size()));
+                copy.select(move.getX(), move.getY());
+                copy.pop();
+            }
+            assertTrue(copy.getScore() + copy.getBiggestClusterBonus() <= solver.getBestScore());
+        }
+    }
+
+    @Test
+    public void tableIsUsed() {
+        GameEngine game = new GameEngine(5, 5, 3);
+        game.init(2014);
+        Solver solver = new Solver(16);
+        solver.solve(game);
+        assertTrue(solver.getHitRate() > 0);
+        assertTrue(solver.getNodesPerSecond() > 0);
+    }
+
+    @Test
+    public void heavierBoardPushesTheOldOneToTheSecondSlot() {
+        Solver solver = new Solver(4);
+        // Same bucket, different boards.
+        long light = 2, heavy = 2 + 16;
+        solver.store(light, 100, 5);
+        solver.store(heavy, 200, 8);
+        assertEquals(100, solver.getValue(solver.probe(light)));
+        assertEquals(200, solver.getValue(solver.probe(heavy)));
+    }
+
+    @Test
+    public void lighterBoardTakesTheSecondSlot() {
+        Solver solver = new Solver(4);
+        long heavy = 2, light = 2 + 16, lighter = 2 + 32;
+        solver.store(heavy, 100, 8);
+        solver.store(light, 200, 5);
+        assertEquals(100, solver.getValue(solver.probe(heavy)));
+        assertEquals(200, solver.getValue(solver.probe(light)));
+        solver.store(lighter, 300, 3);
+        assertEquals(100, solver.getValue(solver.probe(heavy)));
+        assertEquals(-1, solver.probe(light));
+        assertEquals(300, solver.getValue(solver.probe(lighter)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void badTableSizeIsRejected() {
+        new Solver(0);
+    }
+}
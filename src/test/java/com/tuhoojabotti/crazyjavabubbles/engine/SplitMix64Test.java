@@ -0,0 +1,61 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class SplitMix64Test {
+
+    @Test
+    public void matchesReferenceOutput() {
+        SplitMix64 random = new SplitMix64(0);
+        assertEquals(0xe220a8397b1dcdafL, random.nextLong());
+        assertEquals(0x6e789e6aa1b965f4L, random.nextLong());
+        assertEquals(0x06c45d188009454fL, random.nextLong());
+    }
+
+    @Test
+    public void nextIntStaysInBounds() {
+        SplitMix64 random = new SplitMix64(7);
+        int[] counts = new int[5];
+        for (int i = 0; i < 10000; i++) {
+            counts[random.nextInt(5)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 1800 && count < 2200);
+        }
+    }
+
+    @Test
+    public void scaleCoversTheRange() {
+        assertEquals(0, SplitMix64.scale(0, 4));
+        assertEquals(3, SplitMix64.scale(-1, 4));
+        assertEquals(2, SplitMix64.scale(Integer.MIN_VALUE, 4));
+    }
+}
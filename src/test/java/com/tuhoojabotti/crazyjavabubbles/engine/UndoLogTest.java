@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class UndoLogTest {
+
+    private GameEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = new GameEngine(24, 17, 4);
+        engine.init(2014);
+    }
+
+    @Test
+    public void undoingEverythingGivesTheStartingBoard() {
+        byte[] start = cellsOf(engine.getGrid());
+        int pops = playToTheEnd();
+        for (int i = 0; i < pops; i++) {
+            assertTrue(engine.undo());
+        }
+        assertFalse(engine.undo());
+        assertArrayEquals(start, cellsOf(engine.getGrid()));
+        assertEquals(0, engine.getScore());
+        assertEquals(0, engine.getBubblesPopped());
+        assertEquals(0, engine.getBiggestCluster());
+    }
+
+    @Test
+    public void undoRestoresTheClusters() {
+        Grid fresh = new Grid(24, 17, 4);
+        Move move = engine.listMoves().get(0);
+        engine.select(move.getX(), move.getY());
+        engine.pop();
+        engine.undo();
+        fresh.randomize(2014);
+        ClusterLabels expected = fresh.getClusters(), actual = engine.getGrid().getClusters();
+        assertArrayEquals(fresh.getSizeHistogram(), engine.getGrid().getSizeHistogram());
+        for (int cell = 0; cell < 24 * 17; cell++) {
+            assertEquals(expected.getSize(expected.getLabel(cell)),
+                actual.getSize(actual.getLabel(cell)));
+        }
+    }
+
+    @Test
+    public void redoGivesTheSameGame() {
+        playToTheEnd();
+        byte[] end = cellsOf(engine.getGrid());
+        int score = engine.getScore(), biggest = engine.getBiggestCluster();
+        while (engine.undo()) {
+        }
+        while (engine.redo() > 0) {
+        }
+        assertArrayEquals(end, cellsOf(engine.getGrid()));
+        assertEquals(score, engine.getScore());
+        assertEquals(biggest, engine.getBiggestCluster());
+        assertTrue(engine.isGameOver());
+    }
+
+    @Test
+    public void newPopForgetsRedo() {
+        Move move = engine.listMoves().get(0);
+        engine.select(move.getX(), move.getY());
+        engine.pop();
+        engine.undo();
+        move = engine.listMoves().get(1);
+        engine.select(move.getX(), move.getY());
+        engine.pop();
+        assertEquals(0, engine.redo());
+        assertEquals(1, engine.getHistory().getSize());
+    }
+
+    @Test
+    public void newGameForgetsHistory() {
+        playToTheEnd();
+        engine.init(1);
+        assertFalse(engine.undo());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void undoOfEmptyLogFails() {
+        new UndoLog().undo();
+    }
+
+    private int playToTheEnd() {
+        int pops = 0;
+        List<Move> moves;
+        while (!(moves = engine.listMoves()).isEmpty()) {
+            Move move = moves.get(moves.size() / 2);
+            engine.select(move.getX(), move.getY());
+            engine.pop();
+            pops++;
+        }
+        return pops;
+    }
+
+    private static byte[] cellsOf(Grid grid) {
+        byte[] cells = new byte[grid.getWidth() * grid.getHeight()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = grid.get(i % grid.getWidth(), i / grid.getWidth());
+        }
+        return cells;
+    }
+}
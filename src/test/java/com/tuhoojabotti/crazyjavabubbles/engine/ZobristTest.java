@@ -0,0 +1,61 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.engine;
+
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class ZobristTest {
+
+    @Test
+    public void updateMatchesFullHash() {
+        GameEngine game = new GameEngine(10, 10, 4);
+        game.init(2014);
+        Zobrist zobrist = new Zobrist(100, 4, 1);
+        long hash = zobrist.hash(game.getGrid());
+        List<Move> moves;
+        while (!(moves = game.listMoves()).isEmpty()) {
+            Move move = moves.get(moves.size() / 2);
+            game.select(move.getX(), move.getY());
+            game.pop();
+            hash = zobrist.update(hash, game.getGrid(), move.getColor());
+            assertEquals(zobrist.hash(game.getGrid()), hash);
+        }
+    }
+
+    @Test
+    public void differentBoardsHashDifferently() {
+        Grid a = new Grid(3, 1, 2), b = new Grid(3, 1, 2);
+        a.setCells(new byte[]{1, 2, 1});
+        b.setCells(new byte[]{2, 1, 1});
+        Zobrist zobrist = new Zobrist(3, 2, 1);
+        assertTrue(zobrist.hash(a) != zobrist.hash(b));
+        assertEquals(0, zobrist.hash(new Grid(3, 1, 2)));
+    }
+}
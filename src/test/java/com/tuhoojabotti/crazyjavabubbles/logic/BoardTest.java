@@ -23,6 +23,9 @@
  */
 package com.tuhoojabotti.crazyjavabubbles.logic;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -52,7 +55,7 @@ public class BoardTest {
 
     @Before
     public void setUp() {
-        board = new Board(24, 17);
+        board = new Board(24, 17, 4);
         board.init();
     }
 
@@ -281,4 +284,92 @@ public class BoardTest {
         board.select(3, 0);
         assertEquals(0, selectionSize());
     }
+
+    @Test
+    public void bubblesFollowTheirCells() {
+        boardFromMatrix(board, new char[][]{
+            {'g', 'r', 'y', 'b'},
+            {'r', 'r', 'b', 'b'},
+            {'y', 'r', 'g', 'b'},
+            {'g', 'g', 'g', 'y'}
+        });
+        Bubble yellow = board.getBubbles()[0][2];
+        board.select(1, 1);
+        assertEquals(4, board.pop().size());
+        board.select(3, 0);
+        assertEquals(4, board.pop().size());
+
+        Bubble[][] bubbles = board.getBubbles();
+        for (int y = 0; y < bubbles.length; y++) {
+            for (int x = 0; x < bubbles[0].length; x++) {
+                if (bubbles[y][x] != null) {
+                    assertEquals(x, (int) bubbles[y][x].x);
+                    assertEquals(y, (int) bubbles[y][x].y);
+                }
+            }
+        }
+        assertSame(yellow, bubbles[1][2]);
+    }
+
+    @Test
+    public void listenersCanFollowTheBoard() {
+        boardFromMatrix(board, new char[][]{
+            {'g', 'r', 'y', 'b'},
+            {'r', 'r', 'b', 'b'},
+            {'y', 'r', 'g', 'b'},
+            {'g', 'g', 'g', 'y'}
+        });
+        final Bubble[][] mirror = new Bubble[4][4];
+        final Set<Bubble> selected = Collections.newSetFromMap(new IdentityHashMap<Bubble, Boolean>());
+        for (int y = 0; y < 4; y++) {
+            System.arraycopy(board.getBubbles()[y], 0, mirror[y], 0, 4);
+        }
+        board.addListener(new BoardListener() {
+            @Override
+            public void bubblePopped(Bubble bubble, int x, int y) {
+                assertSame(mirror[y][x], bubble);
+                mirror[y][x] = null;
+                // Popped bubbles leave the selection with the board.
+                selected.remove(bubble);
+            }
+
+            @Override
+            public void bubbleMoved(Bubble bubble, int fromX, int fromY, int toX, int toY) {
+                assertSame(mirror[fromY][fromX], bubble);
+                assertNull(mirror[toY][toX]);
+                mirror[fromY][fromX] = null;
+                mirror[toY][toX] = bubble;
+            }
+
+            @Override
+            public void bubbleAdded(Bubble bubble, int x, int y) {
+                mirror[y][x] = bubble;
+            }
+
+            @Override
+            public void selectionEntered(Bubble bubble) {
+                assertTrue(selected.add(bubble));
+            }
+
+            @Override
+            public void selectionLeft(Bubble bubble) {
+                assertTrue(selected.remove(bubble));
+            }
+        });
+
+        board.select(1, 1);
+        assertEquals(4, selected.size());
+        board.select(3, 0);
+        assertEquals(4, selected.size());
+        board.pop();
+        assertTrue(selected.isEmpty());
+        board.select(1, 1);
+        board.pop();
+        Bubble[][] bubbles = board.getBubbles();
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                assertSame(bubbles[y][x], mirror[y][x]);
+            }
+        }
+    }
 }
@@ -25,6 +25,7 @@ package com.tuhoojabotti.crazyjavabubbles.logic;
 
 import com.tuhoojabotti.crazyjavabubbles.main.Util;
 import java.awt.Point;
+import java.util.Arrays;
 import java.util.Random;
 import org.junit.After;
 import org.junit.Before;
@@ -71,6 +72,14 @@ public class BubbleTest {
         testPoint(10, 10);
         testPoint(0, -10);
     }
+
+    @Test
+    public void randomColorsAreTheDefaultColors() {
+        for (int i = 0; i < 200; i++) {
+            int color = Arrays.asList(Bubble.PALETTE).indexOf(new Bubble(0, 0).getColor());
+            assertTrue(color >= 0 && color < CrazyGameLogic.DEFAULT_COLORS);
+        }
+    }
     
     private void testPoint(int x, int y) {
         Random rand = new Random();
@@ -24,6 +24,7 @@
 package com.tuhoojabotti.crazyjavabubbles.logic;
 
 import static com.tuhoojabotti.crazyjavabubbles.main.Util.getPositionOnBoard;
+import com.tuhoojabotti.crazyjavabubbles.engine.Move;
 import com.tuhoojabotti.crazyjavabubbles.main.Settings;
 import java.awt.Point;
 import java.util.Random;
@@ -32,6 +33,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import org.newdawn.slick.Color;
 import org.newdawn.slick.geom.Vector2f;
 
 /**
@@ -126,6 +128,31 @@ public class CrazyGameLogicTest {
         assertNotSame(selection, logic.getBoard().getSelection());
     }
 
+    @Test
+    public void undoBringsTheBubblesBack() {
+        Bubble[][] bubbles = logic.getBoard().getBubbles();
+        Color[][] colors = new Color[bubbles.length][bubbles[0].length];
+        for (int y = 0; y < bubbles.length; y++) {
+            for (int x = 0; x < bubbles[0].length; x++) {
+                colors[y][x] = bubbles[y][x].getColor();
+            }
+        }
+        Move move = logic.getBoard().listMoves().get(0);
+        logic.updateSelection(new Vector2f(margin + move.getX() * r, margin + move.getY() * r));
+        assertEquals(move.getSize(), logic.pop().size());
+        assertTrue(logic.undo());
+        assertEquals(0, logic.getScore());
+        for (int y = 0; y < bubbles.length; y++) {
+            for (int x = 0; x < bubbles[0].length; x++) {
+                assertEquals(colors[y][x], bubbles[y][x].getColor());
+                assertEquals(new Vector2f(x, y), bubbles[y][x]);
+            }
+        }
+        assertEquals(move.getSize(), logic.redo().size());
+        assertEquals(logic.calculateScore(move.getSize()), logic.getScore());
+        assertNull(logic.redo());
+    }
+
     @Test
     public void calculateScoreWorks() {
         assertEquals(400, logic.calculateScore(2));
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import com.tuhoojabotti.crazyjavabubbles.engine.Grid;
+import com.tuhoojabotti.crazyjavabubbles.engine.Move;
+import com.tuhoojabotti.crazyjavabubbles.logic.Bubble;
+import com.tuhoojabotti.crazyjavabubbles.logic.CrazyGameLogic;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RecordingRenderTarget;
+import java.util.List;
+import org.junit.Test;
+import org.newdawn.slick.geom.Vector2f;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BoardRendererTest {
+
+    @Test
+    public void slotsFollowTheBoardWhenBubblesFall() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Grid grid = new Grid(8, 8, 3);
+            grid.randomize(seed);
+            CrazyGameLogic logic = new CrazyGameLogic(8, 8, 3);
+            logic.init(grid);
+            BoardRenderer renderer = new BoardRenderer(logic.getBoard(),
+                new BubbleRenderer(new RecordingRenderTarget(), 20), new Vector2f());
+            // Drive the simulation by hand.
+            renderer.stop();
+
+            for (List<Move> moves = logic.getBoard().listMoves(); !moves.isEmpty();
+                moves = logic.getBoard().listMoves()) {
+                logic.showHint(moves.get(0));
+                assertNotNull(logic.pop());
+            }
+            renderer.getSimulation().step();
+
+            assertInSync(logic, renderer);
+        }
+    }
+
+    @Test
+    public void undoneBubblesAreDrawnAgain() {
+        Grid grid = new Grid(8, 8, 3);
+        grid.randomize(2014);
+        CrazyGameLogic logic = new CrazyGameLogic(8, 8, 3);
+        logic.init(grid);
+        BoardRenderer renderer = new BoardRenderer(logic.getBoard(),
+            new BubbleRenderer(new RecordingRenderTarget(), 20), new Vector2f());
+        renderer.stop();
+
+        int pops = 0;
+        for (List<Move> moves = logic.getBoard().listMoves(); !moves.isEmpty() && pops < 5;
+            moves = logic.getBoard().listMoves()) {
+            logic.showHint(moves.get(0));
+            assertNotNull(logic.pop());
+            pops++;
+        }
+        logic.undo();
+        logic.undo();
+        assertNotNull(logic.redo());
+        while (logic.undo()) {
+        }
+        renderer.getSimulation().step();
+
+        assertEquals(8 * 8, renderer.getPhysics().getCount());
+        assertInSync(logic, renderer);
+    }
+
+    private static void assertInSync(CrazyGameLogic logic, BoardRenderer renderer) {
+        Bubble[][] bubbles = logic.getBoard().getBubbles();
+        int count = 0;
+        for (int y = 0; y < bubbles.length; y++) {
+            for (int x = 0; x < bubbles[y].length; x++) {
+                if (bubbles[y][x] != null) {
+                    assertSame(bubbles[y][x], renderer.getPhysics().getBubble(renderer.getSlot(x, y)));
+                    count++;
+                }
+            }
+        }
+        assertEquals(count, renderer.getPhysics().getCount());
+    }
+}
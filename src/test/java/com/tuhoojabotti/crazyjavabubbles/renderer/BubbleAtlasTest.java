@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import com.tuhoojabotti.crazyjavabubbles.logic.Bubble;
+import org.junit.Test;
+import org.newdawn.slick.Color;
+import org.newdawn.slick.ImageBuffer;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BubbleAtlasTest {
+
+    private final int[] holes = {8, 12, 16};
+    private final BubbleAtlas atlas = new BubbleAtlas(32, holes, Bubble.PALETTE);
+
+    @Test
+    public void everyColourHasABubble() {
+        assertEquals(Bubble.PALETTE.length + holes.length + 1, atlas.getSpriteCount());
+        for (int i = 0; i < Bubble.PALETTE.length; i++) {
+            int sprite = atlas.getBubbleSprite(Bubble.PALETTE[i]);
+            assertEquals(i, sprite);
+            assertFalse(atlas.isTinted(sprite));
+            assertEquals(32, atlas.getSpriteSize(sprite));
+        }
+        int other = atlas.getBubbleSprite(new Color(1, 2, 3));
+        assertTrue(atlas.isTinted(other));
+        assertEquals(32, atlas.getSpriteSize(other));
+    }
+
+    @Test
+    public void holesAreOnlyScaledDown() {
+        assertEquals(8, atlas.getSpriteSize(atlas.getHoleSprite(5)));
+        assertEquals(12, atlas.getSpriteSize(atlas.getHoleSprite(8.5f)));
+        assertEquals(16, atlas.getSpriteSize(atlas.getHoleSprite(16)));
+        assertEquals(32, atlas.getSpriteSize(atlas.getHoleSprite(20)));
+        assertTrue(atlas.isTinted(atlas.getHoleSprite(10)));
+    }
+
+    @Test
+    public void spritesDoNotOverlap() {
+        for (int a = 0; a < atlas.getSpriteCount(); a++) {
+            assertTrue(atlas.getSpriteX(a) >= 1 && atlas.getSpriteY(a) >= 1);
+            assertTrue(atlas.getSpriteX(a) + atlas.getSpriteSize(a) < atlas.getWidth());
+            assertTrue(atlas.getSpriteY(a) + atlas.getSpriteSize(a) < atlas.getHeight());
+            for (int b = 0; b < a; b++) {
+                boolean apart = atlas.getSpriteX(a) > atlas.getSpriteX(b) + atlas.getSpriteSize(b)
+                    || atlas.getSpriteX(b) > atlas.getSpriteX(a) + atlas.getSpriteSize(a)
+                    || atlas.getSpriteY(a) > atlas.getSpriteY(b) + atlas.getSpriteSize(b)
+                    || atlas.getSpriteY(b) > atlas.getSpriteY(a) + atlas.getSpriteSize(a);
+                assertTrue(apart);
+            }
+        }
+    }
+
+    @Test
+    public void discsHaveSmoothEdges() {
+        ImageBuffer pixels = atlas.rasterize();
+        assertEquals(atlas.getWidth(), pixels.getWidth());
+        int sprite = 0, x = atlas.getSpriteX(sprite), y = atlas.getSpriteY(sprite);
+        Color red = Bubble.PALETTE[0];
+        // Middle is solid, corner is empty, somewhere on the edge is between.
+        assertArrayEquals(new int[]{red.getRed(), red.getGreen(), red.getBlue(), 255},
+            pixel(pixels, x + 16, y + 16));
+        assertEquals(0, pixel(pixels, x, y)[3]);
+        boolean between = false;
+        for (int i = 0; i < 16; i++) {
+            int alpha = pixel(pixels, x + i, y + i)[3];
+            between |= alpha > 0 && alpha < 255;
+        }
+        assertTrue(between);
+    }
+
+    private int[] pixel(ImageBuffer pixels, int x, int y) {
+        byte[] rgba = pixels.getRGBA();
+        int offset = (y * pixels.getTexWidth() + x) * 4;
+        return new int[]{rgba[offset] & 0xFF, rgba[offset + 1] & 0xFF,
+            rgba[offset + 2] & 0xFF, rgba[offset + 3] & 0xFF};
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void holesMustFitInABubble() {
+        new BubbleAtlas(32, new int[]{40}, Bubble.PALETTE);
+    }
+}
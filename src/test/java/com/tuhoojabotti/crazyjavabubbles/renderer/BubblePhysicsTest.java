@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import com.tuhoojabotti.crazyjavabubbles.logic.Bubble;
+import com.tuhoojabotti.crazyjavabubbles.main.Settings;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BubblePhysicsTest {
+
+    private final int r = Settings.BUBBLE_RADIUS;
+    private BubblePhysics physics;
+
+    @Before
+    public void setUp() {
+        physics = new BubblePhysics(2);
+    }
+
+    @Test
+    public void removingMovesTheLastBubble() {
+        Bubble a = new Bubble(0, 0), b = new Bubble(1, 0), c = new Bubble(2, 0);
+        assertEquals(0, physics.add(a));
+        assertEquals(1, physics.add(b));
+        assertEquals(2, physics.add(c));
+        physics.setSelected(2, true);
+        physics.remove(0);
+        assertEquals(2, physics.getCount());
+        assertSame(c, physics.getBubble(0));
+        assertTrue(physics.isSelected(0));
+        assertSame(b, physics.getBubble(1));
+        physics.remove(1);
+        assertEquals(1, physics.getCount());
+        assertSame(c, physics.getBubble(0));
+    }
+
+    @Test
+    public void bubblesSettleToTheirCells() {
+        int slot = physics.add(new Bubble(3, 2));
+        physics.setBoardLocation(100, 50);
+        for (int i = 0; i < 2000; i++) {
+            physics.update(16, -100000, -100000);
+        }
+        // The mouse pulls a little.
+        assertEquals(100 + 3 * r, physics.getX(slot), 5);
+        assertEquals(50 + 2 * r, physics.getY(slot), 5);
+
+        physics.moveTo(slot, 0, 0);
+        for (int i = 0; i < 2000; i++) {
+            physics.update(16, -100000, -100000);
+        }
+        assertEquals(100, physics.getX(slot), 5);
+        assertEquals(50, physics.getY(slot), 5);
+    }
+
+    @Test
+    public void explosionPushesAway() {
+        int slot = physics.add(new Bubble(5, 5));
+        physics.setBoardLocation(Settings.BOARD_MARGIN, Settings.BOARD_MARGIN);
+        for (int i = 0; i < 2000; i++) {
+            physics.update(16, -100000, -100000);
+        }
+        float x = physics.getX(slot);
+        ImpulseField field = new ImpulseField(2 * r, 0.001f);
+        field.addSource(Settings.BOARD_MARGIN + 4 * r + r / 2,
+            Settings.BOARD_MARGIN + 5 * r + r / 2);
+        physics.applyImpulse(field);
+        physics.update(16, -100000, -100000);
+        assertTrue(physics.getX(slot) > x);
+    }
+
+    @Test
+    public void holeIsInsideTheBubble() {
+        int slot = physics.add(new Bubble(1, 1));
+        for (int i = 0; i < 100; i++) {
+            physics.update(16, 200, 200);
+            float hole = physics.getHoleRadius(slot);
+            assertTrue(hole >= 8 - 2.5f);
+            assertTrue(physics.getHoleX(slot) >= physics.getX(slot) - 4);
+            assertTrue(physics.getHoleX(slot) + hole * 2 <= physics.getX(slot) + r + 4);
+        }
+    }
+
+    @Test
+    public void hundredThousandBubblesFitInAFrame() {
+        physics = new BubblePhysics(100000);
+        for (int i = 0; i < 100000; i++) {
+            physics.add(new Bubble(i % 300, i / 300));
+        }
+        for (int i = 0; i < 60; i++) {
+            physics.update(16, 500, 500);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 60; i++) {
+            physics.update(16, 500, 500);
+        }
+        // A second of frames in well under a few seconds, even on slow machines.
+        assertTrue((System.nanoTime() - start) / 1000000 < 5000);
+    }
+
+    @Test
+    public void frameRateDoesNotChangeTheWobble() {
+        BubblePhysics slow = new BubblePhysics(2);
+        for (int i = 0; i < 3; i++) {
+            physics.add(new Bubble(i, 1));
+            slow.add(new Bubble(i, 1));
+        }
+        physics.setSelected(1, true);
+        slow.setSelected(1, true);
+        // 144 fps against 20 fps with uneven frames, two seconds each.
+        for (int i = 0; i < 285; i++) {
+            physics.update(7, 300, 200);
+        }
+        physics.update(2000 - 285 * 7, 300, 200);
+        for (int i = 0; i < 40; i++) {
+            slow.update(i % 2 == 0 ? 40 : 60, 300, 200);
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals(slow.getX(i), physics.getX(i), 0);
+            assertEquals(slow.getY(i), physics.getY(i), 0);
+            assertEquals(slow.getHoleRadius(i), physics.getHoleRadius(i), 0);
+        }
+    }
+
+    @Test
+    public void snapshotHoldsTheLastTwoSteps() {
+        int slot = physics.add(new Bubble(3, 2));
+        physics.update(16, 0, 0);
+        float before = physics.getX(slot);
+        physics.update(16, 0, 0);
+        float after = physics.getX(slot);
+
+        BubbleSnapshot frame = new BubbleSnapshot();
+        physics.snapshot(frame, 1000);
+        assertEquals(1, frame.getCount());
+        assertSame(physics.getBubble(slot).getColor(), frame.getColor(slot));
+        assertEquals(before, frame.getX(slot, 0), 0);
+        assertEquals(after, frame.getX(slot, 1), 0);
+        assertEquals(0.5f, frame.getAlpha(1000 + 8000000), 1e-6);
+        assertEquals((before + after) / 2, frame.getX(slot, 0.5f), 1e-3);
+        // Rendering never runs ahead of the next step.
+        assertEquals(1, frame.getAlpha(1000 + 100000000), 0);
+    }
+}
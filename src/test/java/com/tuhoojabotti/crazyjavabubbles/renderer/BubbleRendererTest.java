@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import com.tuhoojabotti.crazyjavabubbles.logic.Bubble;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RecordingRenderTarget;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RenderCommand;
+import java.lang.management.ManagementFactory;
+import org.junit.Test;
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Image;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BubbleRendererTest {
+
+    private final ImpulseField field = new ImpulseField(64, 0.001f);
+    private final BubbleSnapshot frame = new BubbleSnapshot();
+
+    /**
+     * Also checks how much the sprites are scaled.
+     */
+    private static class ScaleRecorder extends RecordingRenderTarget {
+
+        float smallestScale = Float.MAX_VALUE;
+
+        @Override
+        public void drawSprite(float x, float y, float x2, float y2,
+            float srcX, float srcY, float srcX2, float srcY2, Color filter) {
+            super.drawSprite(x, y, x2, y2, srcX, srcY, srcX2, srcY2, filter);
+            smallestScale = Math.min(smallestScale, (srcX2 - srcX) / (x2 - x));
+        }
+    }
+
+    private BubbleSnapshot settle(BubblePhysics physics) {
+        for (int i = 0; i < 100; i++) {
+            physics.update(16, 100, 100);
+        }
+        physics.snapshot(frame, System.nanoTime());
+        return frame;
+    }
+
+    @Test
+    public void rendersTwoSpritesPerBubbleInOneBatch() {
+        BubblePhysics physics = new BubblePhysics(4);
+        for (int i = 0; i < 10; i++) {
+            physics.add(new Bubble(Bubble.PALETTE[i % 2], i, 0));
+        }
+        physics.add(new Bubble(new Color(0.1f, 0.2f, 0.3f), 10, 0));
+        ScaleRecorder target = new ScaleRecorder();
+        new BubbleRenderer(target, 20, new Image() {}).render(settle(physics));
+
+        assertEquals(1, target.getCount(RenderCommand.SPRITE_BATCH));
+        assertEquals(22, target.getDrawCalls());
+        // Palette bubbles are drawn untinted, so it goes white, black,
+        // white... and the batch starts white.
+        assertEquals(21, target.getColorSwitches());
+        // Sprites are never stretched bigger.
+        assertTrue(target.smallestScale > 0.999f);
+    }
+
+    @Test
+    public void rendersTwoCirclesPerBubble() {
+        BubblePhysics physics = new BubblePhysics(4);
+        for (int i = 0; i < 10; i++) {
+            physics.add(new Bubble(i, 0));
+        }
+        RecordingRenderTarget target = new RecordingRenderTarget();
+        new BubbleRenderer(target, 20).render(settle(physics));
+        assertEquals(20, target.getCount(RenderCommand.OVAL));
+        assertEquals(20, target.getDrawCalls());
+        assertEquals(0, target.getCount(RenderCommand.SPRITE_BATCH));
+    }
+
+    @Test
+    public void framesDoNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long id = Thread.currentThread().getId();
+
+        RecordingRenderTarget target = new RecordingRenderTarget();
+        BubbleRenderer renderer = new BubbleRenderer(target, 20),
+            spriteRenderer = new BubbleRenderer(target, 20, new Image() {});
+        BubblePhysics physics = new BubblePhysics(1000);
+        for (int i = 0; i < 1000; i++) {
+            physics.add(new Bubble(i % 20, i / 20));
+        }
+
+        // Let the JIT settle first.
+        frames(physics, renderer, 1000);
+        frames(physics, spriteRenderer, 1000);
+        long before = threads.getThreadAllocatedBytes(id);
+        frames(physics, renderer, 500);
+        frames(physics, spriteRenderer, 500);
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+        // Allow for the bookkeeping of the measurement itself.
+        assertTrue("Allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    private void frames(BubblePhysics physics, BubbleRenderer renderer, int n) {
+        for (int i = 0; i < n; i++) {
+            if (i % 100 == 0) {
+                field.clear();
+                field.addSource(i % 20 * 32, 160);
+                field.addSource(i % 20 * 32 + 32, 160);
+                physics.applyImpulse(field);
+            }
+            physics.update(16, 300, 300);
+            physics.snapshot(frame, System.nanoTime());
+            renderer.render(frame);
+        }
+    }
+}
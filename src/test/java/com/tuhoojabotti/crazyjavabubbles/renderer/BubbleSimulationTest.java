@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import com.tuhoojabotti.crazyjavabubbles.logic.Bubble;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class BubbleSimulationTest {
+
+    @Test
+    public void commandsRunBeforeTheStep() {
+        final BubblePhysics physics = new BubblePhysics(4);
+        BubbleSimulation simulation = new BubbleSimulation(physics);
+        assertEquals(0, simulation.getFrame().getCount());
+        simulation.post(new Runnable() {
+            @Override
+            public void run() {
+                physics.add(new Bubble(0, 0));
+                physics.add(new Bubble(1, 0));
+            }
+        });
+        assertEquals(0, physics.getCount());
+        simulation.step();
+        assertEquals(2, physics.getCount());
+        assertEquals(2, simulation.getFrame().getCount());
+        assertEquals(physics.getX(1), simulation.getFrame().getX(1, 1), 0);
+    }
+
+    @Test
+    public void threadPublishesFrames() throws InterruptedException {
+        BubblePhysics physics = new BubblePhysics(4);
+        physics.add(new Bubble(2, 2));
+        BubbleSimulation simulation = new BubbleSimulation(physics);
+        simulation.start();
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (simulation.getFrame().getCount() == 0
+                && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            float first = simulation.getFrame().getY(0, 1);
+            Thread.sleep(100);
+            // Still falling towards its cell.
+            assertTrue(simulation.getFrame().getY(0, 1) > first);
+        } finally {
+            simulation.stop();
+        }
+        int count = physics.getCount();
+        simulation.step();
+        assertEquals(count, simulation.getFrame().getCount());
+    }
+}
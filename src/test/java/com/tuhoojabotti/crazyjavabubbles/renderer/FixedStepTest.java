@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class FixedStepTest {
+
+    @Test
+    public void leftoverTimeCarriesOver() {
+        FixedStep timer = new FixedStep(16, 8);
+        assertEquals(0, timer.advance(10));
+        assertEquals(10 / 16f, timer.getAlpha(), 1e-6);
+        assertEquals(1, timer.advance(10));
+        assertEquals(4 / 16f, timer.getAlpha(), 1e-6);
+        assertEquals(2, timer.advance(28));
+        assertEquals(0, timer.getAlpha(), 0);
+    }
+
+    @Test
+    public void longFramesAreCut() {
+        FixedStep timer = new FixedStep(16, 8);
+        assertEquals(8, timer.advance(1000));
+        assertEquals(0, timer.getAlpha(), 0);
+        assertEquals(1, timer.advance(16));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void timeCanNotGoBack() {
+        new FixedStep(16, 8).advance(-1);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class ImpulseFieldTest {
+
+    private final float[] push = new float[2];
+
+    @Test
+    public void emptyFieldDoesNotPush() {
+        ImpulseField field = new ImpulseField(64, 0);
+        field.push(10, 10, 10, push);
+        assertEquals(0, push[0], 0);
+        assertEquals(0, push[1], 0);
+    }
+
+    @Test
+    public void pushesAwayFromTheSource() {
+        ImpulseField field = new ImpulseField(64, 0);
+        field.addSource(100, 100);
+        field.push(300, 100, 10, push);
+        assertEquals(1 / 200f, push[0], 1e-6);
+        assertEquals(0, push[1], 1e-6);
+        field.push(100, 50, 10, push);
+        assertEquals(0, push[0], 1e-6);
+        assertEquals(-1 / 50f, push[1], 1e-6);
+    }
+
+    @Test
+    public void closeSourcesPushAtMinimumDistance() {
+        ImpulseField field = new ImpulseField(64, 0);
+        field.addSource(100, 100);
+        field.push(103, 104, 10, push);
+        assertEquals(1 / 10f * 3 / 5, push[0], 1e-6);
+        assertEquals(1 / 10f * 4 / 5, push[1], 1e-6);
+        // A receiver on top of a source is not pushed by it.
+        field.push(100, 100, 10, push);
+        assertEquals(0, push[0], 0);
+    }
+
+    @Test
+    public void sourcesAreCollectedIntoTiles() {
+        ImpulseField field = new ImpulseField(64, 0);
+        for (int x = 0; x < 128; x += 32) {
+            for (int y = 0; y < 64; y += 32) {
+                field.addSource(x + 16, y + 16);
+            }
+        }
+        assertEquals(8, field.getSourceCount());
+        assertEquals(2, field.getTileCount());
+        field.clear();
+        assertEquals(0, field.getSourceCount());
+        assertEquals(0, field.getTileCount());
+    }
+
+    @Test
+    public void tilesApproximateTheSources() {
+        Random rand = new Random(1);
+        ImpulseField field = new ImpulseField(64, 0);
+        float[] sx = new float[300], sy = new float[300];
+        for (int i = 0; i < sx.length; i++) {
+            sx[i] = 200 + rand.nextInt(20) * 32 + 16;
+            sy[i] = 200 + rand.nextInt(15) * 32 + 16;
+            field.addSource(sx[i], sy[i]);
+        }
+        assertTrue(field.getTileCount() < 100);
+        for (int i = 0; i < 200; i++) {
+            float x = rand.nextFloat() * 1200, y = rand.nextFloat() * 1000;
+            float ex = 0, ey = 0;
+            for (int j = 0; j < sx.length; j++) {
+                float dx = x - sx[j], dy = y - sy[j],
+                    length = (float) Math.sqrt(dx * dx + dy * dy);
+                if (length > 0) {
+                    ex += dx / Math.max(10, length) / length;
+                    ey += dy / Math.max(10, length) / length;
+                }
+            }
+            field.push(x, y, 10, push);
+            float error = (float) Math.hypot(push[0] - ex, push[1] - ey),
+                size = (float) Math.hypot(ex, ey);
+            assertTrue("Error " + error + " of " + size, error <= size * 0.1f + 1e-3f);
+        }
+    }
+
+    @Test
+    public void weakTilesAreSkipped() {
+        ImpulseField field = new ImpulseField(64, 0.01f);
+        field.addSource(0, 0);
+        field.push(50, 0, 10, push);
+        assertEquals(1 / 50f, push[0], 1e-6);
+        field.push(1000, 0, 10, push);
+        assertEquals(0, push[0], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tilesMustHaveASize() {
+        new ImpulseField(0, 0);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class TripleBufferTest {
+
+    @Test
+    public void readerGetsTheLatestFrame() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(new int[1], new int[1], new int[1]);
+        int[] before = buffer.getFront();
+        assertSame(before, buffer.getFront());
+
+        buffer.getBack()[0] = 1;
+        buffer.publish();
+        buffer.getBack()[0] = 2;
+        buffer.publish();
+        assertEquals(2, buffer.getFront()[0]);
+        // Nothing new, the same frame again.
+        assertEquals(2, buffer.getFront()[0]);
+    }
+
+    @Test
+    public void writerNeverGetsTheFrontBuffer() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(new int[1], new int[1], new int[1]);
+        for (int i = 0; i < 20; i++) {
+            buffer.publish();
+            assertNotSame(buffer.getFront(), buffer.getBack());
+        }
+    }
+
+    @Test
+    public void framesAreNeverTorn() throws InterruptedException {
+        final TripleBuffer<long[]> buffer = new TripleBuffer<>(
+            new long[64], new long[64], new long[64]);
+        final AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                for (long frame = 1; !done.get(); frame++) {
+                    long[] back = buffer.getBack();
+                    for (int i = 0; i < back.length; i++) {
+                        back[i] = frame;
+                    }
+                    buffer.publish();
+                }
+            }
+        };
+        writer.start();
+        long last = 0;
+        try {
+            for (int n = 0; n < 100000; n++) {
+                long[] front = buffer.getFront();
+                long frame = front[0];
+                for (int i = 1; i < front.length; i++) {
+                    assertEquals(frame, front[i]);
+                }
+                assertTrue(frame >= last);
+                last = frame;
+            }
+        } finally {
+            done.set(true);
+            writer.join();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.draw;
+
+import org.junit.Test;
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Image;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class RecordingRenderTargetTest {
+
+    private final RecordingRenderTarget target = new RecordingRenderTarget();
+
+    @Test
+    public void countsDrawCalls() {
+        target.setColor(Color.red);
+        target.fillRect(0, 0, 10, 10);
+        target.fillRoundRect(0, 0, 10, 10, 2, 4);
+        target.fillOval(0, 0, 10, 10, 20);
+        target.drawString(null, 0, 0, "hello", Color.white);
+        assertEquals(4, target.getDrawCalls());
+        assertEquals(1, target.getCount(RenderCommand.COLOR));
+        assertEquals(1, target.getCount(RenderCommand.STRING));
+
+        target.reset();
+        assertEquals(0, target.getDrawCalls());
+        assertEquals(0, target.getColorSwitches());
+    }
+
+    @Test
+    public void onlyNewColoursAreSwitches() {
+        target.setColor(Color.red);
+        target.setColor(new Color(1f, 0f, 0f));
+        target.fillRect(0, 0, 1, 1);
+        target.drawString(null, 0, 0, "a", Color.red);
+        assertEquals(1, target.getColorSwitches());
+        target.drawString(null, 0, 0, "b", Color.blue);
+        target.setColor(Color.red);
+        assertEquals(3, target.getColorSwitches());
+    }
+
+    @Test
+    public void spritesAreBatched() {
+        target.setColor(Color.red);
+        target.beginSprites(new Image() {});
+        target.drawSprite(0, 0, 1, 1, 0, 0, 1, 1, Color.white);
+        target.drawSprite(0, 0, 1, 1, 0, 0, 1, 1, Color.black);
+        target.endSprites();
+        assertEquals(1, target.getCount(RenderCommand.SPRITE_BATCH));
+        assertEquals(2, target.getCount(RenderCommand.SPRITE));
+        assertEquals(2, target.getDrawCalls());
+        // Red, white from the batch, black.
+        assertEquals(2, target.getColorSwitches());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void spritesNeedABatch() {
+        target.drawSprite(0, 0, 1, 1, 0, 0, 1, 1, Color.white);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shapesCanNotBeDrawnInABatch() {
+        target.beginSprites(new Image() {});
+        target.fillRect(0, 0, 1, 1);
+    }
+}
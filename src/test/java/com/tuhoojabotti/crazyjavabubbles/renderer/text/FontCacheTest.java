@@ -0,0 +1,157 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.text;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class FontCacheTest {
+
+    private static final String KEY = "goodtimes.regular:16";
+    private File directory;
+    private FontCache cache;
+    private byte[] source;
+    private java.awt.Font face;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("fonts").toFile();
+        cache = new FontCache(directory);
+        try (InputStream in = getClass().getResourceAsStream("/fonts/goodtimes.regular.ttf")) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int n; (n = in.read(buffer)) != -1;) {
+                bytes.write(buffer, 0, n);
+            }
+            source = bytes.toByteArray();
+        }
+        face = java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT,
+            new java.io.ByteArrayInputStream(source)).deriveFont(16f);
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void glyphsAreReadBackFromTheCache() throws IOException {
+        BakedGlyphs baked = cache.bake(face, java.awt.Color.WHITE).glyphs;
+        File file = cache.getGlyphFile("goodtimes.regular-16", KEY);
+        long stamp = FontCache.stamp(source, KEY);
+        cache.write(file, stamp, baked);
+        assertEquals(FontCache.FILE_SIZE, file.length());
+
+        BakedGlyphs read = cache.read(file, stamp);
+        assertNotNull(read);
+        assertEquals(baked.getLineHeight(), read.getLineHeight());
+        assertArrayEquals(baked.x, read.x);
+        assertArrayEquals(baked.y, read.y);
+        assertArrayEquals(baked.width, read.width);
+        assertArrayEquals(baked.height, read.height);
+        assertArrayEquals(baked.xOffset, read.xOffset);
+        assertArrayEquals(baked.yOffset, read.yOffset);
+        assertArrayEquals(baked.advance, read.advance);
+        assertEquals(1, cache.getBakes());
+    }
+
+    @Test
+    public void staleOrBrokenFilesAreNotRead() throws IOException {
+        BakedGlyphs baked = cache.bake(face, java.awt.Color.WHITE).glyphs;
+        File file = cache.getGlyphFile("goodtimes.regular-16", KEY);
+        long stamp = FontCache.stamp(source, KEY);
+        cache.write(file, stamp, baked);
+
+        assertNull(cache.read(file, FontCache.stamp(source, "goodtimes.regular:17")));
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.setLength(FontCache.FILE_SIZE - 1);
+        }
+        assertNull(cache.read(file, stamp));
+        assertNull(cache.read(new File(directory, "missing.glyphs"), stamp));
+    }
+
+    @Test
+    public void stampDependsOnTheFontAndItsSettings() {
+        long stamp = FontCache.stamp(source, KEY);
+        assertEquals(stamp, FontCache.stamp(source.clone(), KEY));
+        assertTrue(stamp != FontCache.stamp(source, KEY + ",color=ff0000"));
+        byte[] changed = source.clone();
+        changed[changed.length / 2]++;
+        assertTrue(stamp != FontCache.stamp(changed, KEY));
+    }
+
+    @Test
+    public void differentSettingsUseDifferentFiles() {
+        assertFalse(cache.getGlyphFile("goodtimes.regular-16", KEY).equals(
+            cache.getGlyphFile("goodtimes.regular-16", KEY + ",color=ff0000")));
+    }
+
+    @Test
+    public void glyphsAreOnThePage() {
+        FontCache.Baked baked = cache.bake(face, java.awt.Color.WHITE);
+        BakedGlyphs glyphs = baked.glyphs;
+        int h = baked.page.getHeight();
+        assertEquals(0, h & (h - 1));
+        for (int i = 0; i < BakedGlyphs.COUNT; i++) {
+            assertTrue(glyphs.x[i] + glyphs.width[i] <= baked.page.getWidth());
+            assertTrue(glyphs.y[i] + glyphs.height[i] <= h);
+        }
+        int a = BakedGlyphs.index('A');
+        assertTrue(glyphs.width[a] > 0);
+        boolean inked = false;
+        for (int y = 0; y < glyphs.height[a]; y++) {
+            for (int x = 0; x < glyphs.width[a]; x++) {
+                inked |= (baked.page.getRGB(glyphs.x[a] + x, glyphs.y[a] + y) >>> 24) > 0;
+            }
+        }
+        assertTrue(inked);
+    }
+
+    @Test
+    public void bakedFontIsMeasuredWithoutADisplay() {
+        BakedGlyphs glyphs = cache.bake(face, java.awt.Color.WHITE).glyphs;
+        BakedFont font = new BakedFont(glyphs, null);
+        int a = glyphs.advance[BakedGlyphs.index('A')];
+        assertTrue(a > 0);
+        assertEquals(2 * a, font.getWidth("AA"));
+        assertEquals(2 * a, font.getWidth("AäA"));
+        assertEquals(glyphs.getLineHeight(), font.getLineHeight());
+        assertEquals(glyphs.getLineHeight(), font.getHeight("A"));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.text;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Font;
+import org.newdawn.slick.font.effects.ColorEffect;
+import org.newdawn.slick.font.effects.Effect;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class FontRegistryTest {
+
+    /**
+     * A registry that makes fonts without a display.
+     */
+    private final FontRegistry registry = new FontRegistry() {
+        @Override
+        protected Font load(String name, int size, List<Effect> effects) {
+            return new FakeFont();
+        }
+    };
+
+    private static class FakeFont implements Font {
+
+        @Override
+        public int getWidth(String text) {
+            return 0;
+        }
+
+        @Override
+        public int getHeight(String text) {
+            return 0;
+        }
+
+        @Override
+        public int getLineHeight() {
+            return 0;
+        }
+
+        @Override
+        public void drawString(float x, float y, String text) {
+        }
+
+        @Override
+        public void drawString(float x, float y, String text, Color col) {
+        }
+
+        @Override
+        public void drawString(float x, float y, String text, Color col, int start, int end) {
+        }
+    }
+
+    @Test
+    public void sameFontIsLoadedOnce() {
+        Font a = registry.get("goodtimes.regular", 16);
+        assertSame(a, registry.get("goodtimes.regular", 16));
+        assertEquals(1, registry.getLoads());
+    }
+
+    @Test
+    public void sizesAndNamesAreDifferentFonts() {
+        Font a = registry.get("goodtimes.regular", 16);
+        assertNotSame(a, registry.get("goodtimes.regular", 20));
+        assertNotSame(a, registry.get("sweet-as-candy.regular", 16));
+        assertEquals(3, registry.getLoads());
+    }
+
+    @Test
+    public void effectsAreComparedBySettings() {
+        Font white = registry.get("goodtimes.regular", 16);
+        List<Effect> alsoWhite = Arrays.<Effect>asList(new ColorEffect(java.awt.Color.WHITE)),
+            red = Arrays.<Effect>asList(new ColorEffect(java.awt.Color.RED));
+        assertSame(white, registry.get("goodtimes.regular", 16, alsoWhite));
+        assertNotSame(white, registry.get("goodtimes.regular", 16, red));
+        assertEquals(2, registry.getLoads());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.text;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class HudLineTest {
+
+    private static String format(int value, int decimals) {
+        char[] out = new char[16];
+        return new String(out, 0, HudLine.format(value, decimals, out, 0));
+    }
+
+    @Test
+    public void wholeNumbersAreFormatted() {
+        assertEquals("0", format(0, 0));
+        assertEquals("7", format(7, 0));
+        assertEquals("1234", format(1234, 0));
+        assertEquals("-42", format(-42, 0));
+        assertEquals(String.valueOf(Integer.MAX_VALUE), format(Integer.MAX_VALUE, 0));
+        assertEquals(String.valueOf(Integer.MIN_VALUE), format(Integer.MIN_VALUE, 0));
+    }
+
+    @Test
+    public void decimalsAreFormatted() {
+        assertEquals("0.00", format(0, 2));
+        assertEquals("0.05", format(5, 2));
+        assertEquals("12.34", format(1234, 2));
+        assertEquals("100.00", format(10000, 2));
+        assertEquals("-0.05", format(-5, 2));
+    }
+
+    @Test
+    public void lineHasPrefixAndSuffix() {
+        HudLine line = new HudLine("bubbles popped: ", 2, " %");
+        assertNull(line.getText());
+        line.set(5025);
+        assertEquals("bubbles popped: 50.25 %", line.getText());
+        line.set(-3);
+        assertEquals("bubbles popped: -0.03 %", line.getText());
+    }
+
+    @Test
+    public void textIsRebuiltOnlyWhenTheNumberChanges() {
+        HudLine line = new HudLine("time: ");
+        assertTrue(line.set(0));
+        String text = line.getText();
+        assertEquals("time: 0", text);
+        assertFalse(line.set(0));
+        assertSame(text, line.getText());
+        assertTrue(line.set(1));
+        assertEquals("time: 1", line.getText());
+        assertEquals(2, line.getRebuilds());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyDecimalsAreRejected() {
+        new HudLine("x", 10, "");
+    }
+}
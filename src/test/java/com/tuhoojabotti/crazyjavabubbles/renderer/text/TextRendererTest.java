@@ -0,0 +1,112 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 Ville Lahdenvuo <tuhoojabotti@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tuhoojabotti.crazyjavabubbles.renderer.text;
+
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RecordingRenderTarget;
+import com.tuhoojabotti.crazyjavabubbles.renderer.draw.RenderCommand;
+import org.junit.Test;
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Font;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Ville Lahdenvuo <tuhoojabotti@gmail.com>
+ */
+public class TextRendererTest {
+
+    /**
+     * A font where every character is 10 by 20 and drawing does nothing.
+     */
+    private final Font font = new Font() {
+        @Override
+        public int getWidth(String text) {
+            return text.length() * 10;
+        }
+
+        @Override
+        public int getHeight(String text) {
+            return 20;
+        }
+
+        @Override
+        public int getLineHeight() {
+            return 20;
+        }
+
+        @Override
+        public void drawString(float x, float y, String text) {
+        }
+
+        @Override
+        public void drawString(float x, float y, String text, Color col) {
+        }
+
+        @Override
+        public void drawString(float x, float y, String text, Color col, int start, int end) {
+        }
+    };
+
+    /**
+     * Remembers where the last string went.
+     */
+    private final RecordingRenderTarget target = new RecordingRenderTarget() {
+        @Override
+        public void drawString(Font font, float x, float y, String text, Color color) {
+            super.drawString(font, x, y, text, color);
+            lastX = x;
+            lastY = y;
+        }
+    };
+    private float lastX, lastY;
+
+    @Test
+    public void textIsOneDrawCall() {
+        TextRenderer text = new TextRenderer(target, font);
+        text.render(100, 50, "score: 1234");
+        assertEquals(1, target.getDrawCalls());
+        assertEquals(1, target.getColorSwitches());
+        assertEquals(100, lastX, 0);
+        assertEquals(50, lastY, 0);
+    }
+
+    @Test
+    public void textIsAligned() {
+        TextRenderer text = new TextRenderer(target, font);
+        text.setHorizontalAlign(AbstractTextRenderer.Align.CENTER);
+        text.setVerticalAlign(AbstractTextRenderer.Align.BOTTOM);
+        text.render(100, 50, "abcd");
+        assertEquals(80, lastX, 0);
+        assertEquals(30, lastY, 0);
+    }
+
+    @Test
+    public void beatTextDrawsEveryCharacter() {
+        BeatTextRenderer text = new BeatTextRenderer(target, font, "Game Over!", 20);
+        text.render(0, 0);
+        assertEquals(10, target.getCount(RenderCommand.STRING));
+        // All in one colour.
+        assertEquals(1, target.getColorSwitches());
+    }
+}